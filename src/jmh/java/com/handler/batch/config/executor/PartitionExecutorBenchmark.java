@@ -0,0 +1,113 @@
+package com.handler.batch.config.executor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * partition 수 별로 모든 partition이 끝날 때까지의 시간. worker는 JDBC 대기(H2 SLEEP)가 대부분인 상황을 흉내낸다.
+ * - platform : 기존 ThreadPoolTaskExecutor (core 10, max 20)
+ * - virtual : BoundedVirtualThreadTaskExecutor (permit = connection pool 크기, JDK 21 이상)
+ * partition 1개 = query 10번, query 1번 = connection을 잡고 2ms 대기. connection pool 은 10개.
+ *
+ * H2 등 synchronized 안에서 대기하는 driver는 carrier thread를 pin 하므로 carrier 수(core 수) 만큼만 동시에 실행된다.
+ * core 수가 connection pool 보다 적으면 -Djdk.virtualThreadScheduler.parallelism=<pool 크기> 를 함께 준다.
+ *
+ * JDK 21로 실행 : mvn -Pbenchmark -DskipTests verify -Djmh.args="PartitionExecutorBenchmark -jvmArgsAppend -Djdk.virtualThreadScheduler.parallelism=10"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PartitionExecutorBenchmark {
+
+    private static final int CONNECTION_POOL_SIZE = 10;
+    private static final int QUERIES_PER_PARTITION = 10;
+
+    @Param({"8", "64", "512"})
+    private int partitions;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TaskExecutor taskExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:partitionExecutor;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(CONNECTION_POOL_SIZE);
+        dataSource.setMinimumIdle(CONNECTION_POOL_SIZE);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create alias if not exists sleep for \"" + PartitionExecutorBenchmark.class.getName() + ".sleep\"");
+
+        if ("virtual".equals(mode)) {
+            taskExecutor = BoundedVirtualThreadTaskExecutor.create(CONNECTION_POOL_SIZE)
+                    .orElseThrow(() -> new IllegalStateException("virtual thread requires JDK 21"));
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(10);
+            pool.setMaxPoolSize(20);
+            pool.setQueueCapacity(100);
+            pool.setRejectedExecutionHandler(new BlockingRejectedExecutionHandler());
+            pool.initialize();
+            taskExecutor = pool;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (taskExecutor instanceof ThreadPoolTaskExecutor) {
+            ((ThreadPoolTaskExecutor) taskExecutor).shutdown();
+        } else {
+            ((BoundedVirtualThreadTaskExecutor) taskExecutor).destroy();
+        }
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void partitions() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(partitions);
+
+        for (int i = 0; i < partitions; i++) {
+            taskExecutor.execute(() -> {
+                for (int query = 0; query < QUERIES_PER_PARTITION; query++) {
+                    jdbcTemplate.execute("call sleep(2)");
+                }
+                done.countDown();
+            });
+        }
+
+        done.await();
+    }
+
+    /**
+     * H2 SLEEP 함수. (JDK 21은 Thread.sleep overload가 늘어 alias로 바로 지정할 수 없다)
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+}
@@ -0,0 +1,133 @@
+package com.handler.batch.config.metrics;
+
+import com.handler.batch.config.practice4.SlicedStepBuilder;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ChunkMetricsListener 유무에 따른 chunk step 처리 시간. (목표 : 오버헤드 2% 미만)
+ * reader / processor / writer 가 모두 메모리 연산이라 DB를 쓰는 실제 step보다 오버헤드 비율이 크게 나오는 최악 조건이다.
+ * JobRepository는 embedded H2 JDBC. (chunk 마다 BATCH_STEP_EXECUTION update)
+ *
+ * - step=chunk : SimpleStepBuilder, step=sliced : SlicedStepBuilder (slice 100건)
+ *
+ * mvn -Pbenchmark -DskipTests verify -Djmh.args="ChunkMetricsBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkMetricsBenchmark {
+
+    private static final int SIZE = 10_000;
+    private static final int CHUNK = 1_000;
+    private static final int SLICE = 100;
+
+    @Param({"chunk", "sliced"})
+    private String step;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private final List<Integer> items = IntStream.range(0, SIZE).boxed().collect(Collectors.toList());
+    private final AtomicLong sum = new AtomicLong();
+
+    private EmbeddedDatabase dataSource;
+    private JobRepository jobRepository;
+    private StepBuilderFactory stepBuilderFactory;
+    private ThreadPoolTaskExecutor sliceTaskExecutor;
+    private long run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        stepBuilderFactory = new StepBuilderFactory(jobRepository, transactionManager);
+        if (metrics) {
+            stepBuilderFactory = ChunkMetricsConfiguration.metered(stepBuilderFactory,
+                    new ChunkMetricsListener(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), 100));
+        }
+
+        sliceTaskExecutor = new ThreadPoolTaskExecutor();
+        sliceTaskExecutor.setCorePoolSize(4);
+        sliceTaskExecutor.initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sliceTaskExecutor.shutdown();
+        dataSource.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void chunkStep(Blackhole blackhole) throws Exception {
+        SimpleStepBuilder<Integer, Integer> builder = "sliced".equals(step)
+                ? new SlicedStepBuilder<>(stepBuilderFactory.get("chunkMetricsStep"), sliceTaskExecutor, SLICE)
+                : new SimpleStepBuilder<>(stepBuilderFactory.get("chunkMetricsStep"));
+
+        Step chunkStep = builder
+                .chunk(CHUNK)
+                .reader(new ListItemReader<>(items))
+                .processor((ItemProcessor<Integer, Integer>) item -> item % 7 == 0 ? null : item * 2)
+                .writer(list -> list.forEach(sum::addAndGet))
+                .build();
+
+        JobExecution jobExecution = jobRepository.createJobExecution("chunkMetricsJob",
+                new JobParametersBuilder().addLong("run.id", run++).toJobParameters());
+        StepExecution stepExecution = jobExecution.createStepExecution(chunkStep.getName());
+        jobRepository.add(stepExecution);
+
+        chunkStep.execute(stepExecution);
+        blackhole.consume(stepExecution.getWriteCount());
+    }
+}
@@ -0,0 +1,77 @@
+package com.handler.batch.config.metrics;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ChunkMetricsListener 콜백만 chunk 1개분(1,000건) 호출했을 때 item 1건당 비용.
+ * ChunkMetricsBenchmark는 step 실행 편차가 커서 2% 차이를 가려내기 어려우므로, 이 값을 step의 item 당 시간과 나눠 오버헤드 비율을 본다.
+ *
+ * mvn -Pbenchmark -DskipTests verify -Djmh.args="ChunkMetricsListenerBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkMetricsListenerBenchmark {
+
+    private static final int CHUNK = 1_000;
+
+    private final List<Integer> items = IntStream.range(0, CHUNK).boxed().collect(Collectors.toList());
+
+    private ChunkMetricsListener listener;
+    private ChunkContext chunkContext;
+
+    @Setup
+    public void setUp() {
+        listener = new ChunkMetricsListener(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), 100);
+
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "chunkMetricsJob"), 1L, new JobParameters(), null);
+        chunkContext = new ChunkContext(new StepContext(jobExecution.createStepExecution("chunkMetricsStep")));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public void callbacks() {
+        listener.beforeChunk(chunkContext);
+
+        for (Integer item : items) {
+            listener.beforeRead();
+            listener.afterRead(item);
+        }
+        listener.beforeRead();
+
+        for (Integer item : items) {
+            listener.beforeProcess(item);
+            listener.afterProcess(item, item);
+        }
+
+        listener.beforeWrite(items);
+        listener.afterWrite(items);
+        listener.afterChunk(chunkContext);
+    }
+}
@@ -0,0 +1,68 @@
+package com.handler.batch.config.practice;
+
+import com.handler.batch.dao.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 thread가 processor 1개를 공유할 때의 중복 검사. (multi-thread step / partition 상황)
+ * - hotKeys : 64개 이름만 반복 -> 대부분 중복(filter)
+ * - uniqueKeys : 매번 새 이름 -> keyPool에 계속 추가
+ * thread 수 변경 : -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class DuplicateValidationProcessorBenchmark {
+
+    private static final int HOT_KEYS = 64;
+
+    private DuplicateValidationProcessor<Person> processor;
+    private Person[] hotPersons;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // iteration 마다 keyPool을 비워 크기가 계속 커지지 않게 한다.
+        processor = new DuplicateValidationProcessor<>(Person::getName, false);
+        hotPersons = new Person[HOT_KEYS];
+
+        for (int i = 0; i < HOT_KEYS; i++) {
+            hotPersons[i] = new Person("name" + i, "20", "seoul");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private final int threadId = THREADS.getAndIncrement();
+        private int sequence = 0;
+    }
+
+    @Benchmark
+    public Person hotKeys(ThreadState state) throws Exception {
+        return processor.process(hotPersons[state.sequence++ & (HOT_KEYS - 1)]);
+    }
+
+    @Benchmark
+    public Person uniqueKeys(ThreadState state) throws Exception {
+        return processor.process(new Person(state.threadId + "_" + state.sequence++, "20", "seoul"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.handler.batch.config.practice;
+
+import com.handler.batch.dao.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Person csv 1줄 <-> 객체 변환. (SavePersonConfiguration 과 같은 설정)
+ * - mapLine : DelimitedLineTokenizer + FieldSetMapper
+ * - aggregate : BeanWrapperFieldExtractor(reflection) + DelimitedLineAggregator
+ * - aggregateWithoutReflection : getter를 직접 호출하는 extractor (비교용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonCsvBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final String[] lines = new String[SIZE];
+    private final Person[] persons = new Person[SIZE];
+
+    private DefaultLineMapper<Person> lineMapper;
+    private DelimitedLineAggregator<Person> lineAggregator;
+    private DelimitedLineAggregator<Person> directLineAggregator;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < SIZE; i++) {
+            lines[i] = "name" + i + "," + (i % 100) + ",seoul";
+            persons[i] = new Person("name" + i, String.valueOf(i % 100), "seoul");
+        }
+
+        DelimitedLineTokenizer lineTokenizer = new DelimitedLineTokenizer();
+        lineTokenizer.setNames("name", "age", "address");
+
+        lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(lineTokenizer);
+        lineMapper.setFieldSetMapper(fieldSet -> new Person(
+                fieldSet.readString(0),
+                fieldSet.readString(1),
+                fieldSet.readString(2)));
+
+        BeanWrapperFieldExtractor<Person> fieldExtractor = new BeanWrapperFieldExtractor<>();
+        fieldExtractor.setNames(new String[] {"name", "age", "address"});
+
+        lineAggregator = new DelimitedLineAggregator<>();
+        lineAggregator.setDelimiter(",");
+        lineAggregator.setFieldExtractor(fieldExtractor);
+
+        directLineAggregator = new DelimitedLineAggregator<>();
+        directLineAggregator.setDelimiter(",");
+        directLineAggregator.setFieldExtractor(person -> new Object[] {person.getName(), person.getAge(), person.getAddress()});
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void mapLine(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(lineMapper.mapLine(lines[i], i + 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void aggregate(Blackhole blackhole) {
+        for (Person person : persons) {
+            blackhole.consume(lineAggregator.aggregate(person));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void aggregateWithoutReflection(Blackhole blackhole) {
+        for (Person person : persons) {
+            blackhole.consume(directLineAggregator.aggregate(person));
+        }
+    }
+}
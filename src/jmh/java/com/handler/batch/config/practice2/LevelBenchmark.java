@@ -0,0 +1,60 @@
+package com.handler.batch.config.practice2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 등급 계산. 0 ~ 600,000 사이 금액 1,024개를 돌아가며 계산한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final int[] amounts = new int[SIZE];
+    private final Level[] levels = new Level[SIZE];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < SIZE; i++) {
+            amounts[i] = random.nextInt(600_000);
+            levels[i] = Level.values()[random.nextInt(Level.values().length)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void getNextLevel(Blackhole blackhole) {
+        for (int amount : amounts) {
+            blackhole.consume(Level.getNextLevel(amount));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void availableLevelUp(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(Level.availableLevelUp(levels[i], amounts[i]));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.handler.batch.config.practice2;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * userLevelUpStep chunk 1개(read -> levelUp -> write -> commit) 비용. chunk 크기 별로 이전 JPA 방식과 JDBC 방식을 비교한다.
+ * - jpa : JpaPagingItemReader + userRepository.save (merge) + commit 시 flush (이전 userJob)
+ * - jdbc : JdbcUserItemReader + JdbcUserLevelItemWriter (현재 userJob)
+ *
+ * chunk : chunk 전체 시간. -prof gc 의 gc.alloc.rate.norm - resetOnly 가 chunk 1개의 heap 할당량이다.
+ * write : read 는 setup에서 끝내고 levelUp + write + commit(flush) 만 잰다. chunk 크기에 따라 flush 시간이 얼마나 늘어나는지 본다.
+ *
+ * mvn -Pbenchmark -DskipTests verify -Djmh.args="UserLevelUpChunkBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class UserLevelUpChunkBenchmark {
+
+    private static final int USERS = 5_000;
+    private static final int ORDERS_PER_USER = 2;
+
+    @Param({"100", "1000", "5000"})
+    private int chunkSize;
+
+    @Param({"jpa", "jdbc"})
+    private String mode;
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private JpaTransactionManager transactionManager;
+    private JdbcUserLevelItemWriter jdbcWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:userLevelUpChunk;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        properties.put("hibernate.physical_naming_strategy", SpringPhysicalNamingStrategy.class.getName());
+        properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+        properties.put("hibernate.jdbc.batch_size", "1000");
+        properties.put("hibernate.order_updates", "true");
+        properties.put("hibernate.batch_fetch_style", "dynamic");
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.handler.batch.config.practice2", "com.handler.batch.config.practice3");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaProperties(properties);
+        entityManagerFactoryBean.afterPropertiesSet();
+        entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        // JdbcTemplate 도 JpaTransactionManager 가 묶어 둔 connection 을 쓴다. (UserConfiguration 과 같은 구성)
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setDataSource(dataSource);
+        jdbcWriter = new JdbcUserLevelItemWriter(dataSource, null);
+
+        List<Object[]> userRows = new ArrayList<>(USERS);
+        List<Object[]> orderRows = new ArrayList<>(USERS * ORDERS_PER_USER);
+        for (long id = 1; id <= USERS; id++) {
+            userRows.add(new Object[] {id, "user" + id});
+            for (int order = 0; order < ORDERS_PER_USER; order++) {
+                orderRows.add(new Object[] {id * ORDERS_PER_USER + order, "item" + order, 100_000, id});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into user (id, username, level, archived_amount) values (?, ?, 'NORMAL', 0)", userRows);
+        jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, ?, ?, current_date, ?)", orderRows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        jdbcTemplate.execute("shutdown");
+    }
+
+    @Benchmark
+    public List<User> chunk(ResetLevels resetLevels) throws Exception {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        List<User> chunk = read();
+        write(chunk);
+        transactionManager.commit(status);
+        return chunk;
+    }
+
+    @Benchmark
+    public List<User> write(ReadChunk chunk) {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        write(chunk.users);
+        transactionManager.commit(status);
+        return chunk.users;
+    }
+
+    /**
+     * setup 할당량 기준선. gc.alloc.rate.norm 에는 setup 할당도 포함되므로 chunk - resetOnly, write - readOnly 로 본다.
+     */
+    @Benchmark
+    public void resetOnly(ResetLevels resetLevels) {
+    }
+
+    @Benchmark
+    public void readOnly(ReadChunk chunk) {
+    }
+
+    /**
+     * 이전 호출에서 올린 등급을 되돌린다. (등급이 바뀌지 않으면 update / level_history 가 나가지 않는다)
+     */
+    @State(Scope.Thread)
+    public static class ResetLevels {
+
+        @Setup(Level.Invocation)
+        public void reset(UserLevelUpChunkBenchmark benchmark) {
+            benchmark.resetLevels();
+        }
+    }
+
+    /**
+     * write 측정용 : 미리 읽어 둔 chunk. (jpa reader 의 entity는 reader가 닫히면서 detach 되어 있다)
+     */
+    @State(Scope.Thread)
+    public static class ReadChunk {
+
+        private List<User> users;
+
+        @Setup(Level.Invocation)
+        public void read(UserLevelUpChunkBenchmark benchmark) throws Exception {
+            benchmark.resetLevels();
+            users = benchmark.read();
+        }
+    }
+
+    private void resetLevels() {
+        jdbcTemplate.update("update user set level = 'NORMAL', updated_date = null where id <= ?", chunkSize);
+    }
+
+    private List<User> read() throws Exception {
+        ItemStreamReader<User> reader = "jpa".equals(mode) ? jpaReader() : new JdbcUserItemReader(dataSource, chunkSize);
+        reader.open(new ExecutionContext());
+
+        List<User> chunk = new ArrayList<>(chunkSize);
+        User user;
+        while (chunk.size() < chunkSize && (user = reader.read()) != null) {
+            chunk.add(user);
+        }
+
+        reader.close();
+        return chunk;
+    }
+
+    private void write(List<User> chunk) {
+        if ("jdbc".equals(mode)) {
+            jdbcWriter.write(chunk);
+            return;
+        }
+
+        // 이전 itemWriter : users.forEach(x -> { x.levelUp(); userRepository.save(x); })
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        for (User user : chunk) {
+            user.levelUp();
+            entityManager.merge(user);
+        }
+    }
+
+    private JpaPagingItemReader<User> jpaReader() throws Exception {
+        JpaPagingItemReader<User> reader = new JpaPagingItemReaderBuilder<User>()
+                .queryString("select u from User u order by u.id")
+                .entityManagerFactory(entityManagerFactory)
+                .pageSize(chunkSize)
+                .name("userItemReader")
+                .build();
+        reader.afterPropertiesSet();
+        return reader;
+    }
+}
@@ -0,0 +1,64 @@
+package com.handler.batch.config.practice2;
+
+import com.handler.batch.config.practice3.Orders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 건수별 User.getTotalAmount / availableLevelUp. (orders stream 합계)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserTotalAmountBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int orderCount;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        List<Orders> orders = new ArrayList<>(orderCount);
+
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(Orders.builder()
+                    .itemName("item" + i)
+                    .amount(1_000 + i)
+                    .createdDate(LocalDate.of(2020, 11, 1))
+                    .build());
+        }
+
+        user = User.builder()
+                .username("test")
+                .orders(orders)
+                .build();
+    }
+
+    @Benchmark
+    public int getTotalAmount() {
+        return user.getTotalAmount();
+    }
+
+    @Benchmark
+    public boolean availableLevelUp() {
+        return user.availableLevelUp();
+    }
+}
@@ -0,0 +1,110 @@
+package com.handler.batch.config.repository;
+
+import com.handler.batch.config.sample.CustomItemReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 10,000건을 chunk 10 (commit 1,000번)으로 처리하는 step 1개의 시간. item 처리 비용은 거의 0 이라 JobRepository 저장 비용만 남는다.
+ * - default : commit 마다 BATCH_STEP_EXECUTION / BATCH_STEP_EXECUTION_CONTEXT update (JDBC JobRepository)
+ * - buffered : BufferedJobRepository (flush-interval 5000ms)
+ *
+ * mvn -Pbenchmark -DskipTests verify -Djmh.args="BufferedJobRepositoryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferedJobRepositoryBenchmark {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+    private static final int CHUNK = 10;
+
+    @Param({"default", "buffered"})
+    private String mode;
+
+    private EmbeddedDatabase dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private SimpleJobLauncher jobLauncher;
+    private long run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+
+        jobRepository = "buffered".equals(mode)
+                ? new BufferedJobRepository(repositoryFactory.getObject(), 5_000)
+                : repositoryFactory.getObject();
+
+        jobLauncher = new SimpleJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Benchmark
+    public JobExecution step() throws Exception {
+        Job job = new JobBuilder("bufferedJob")
+                .repository(jobRepository)
+                .start(new StepBuilder("bufferedStep")
+                        .repository(jobRepository)
+                        .transactionManager(transactionManager)
+                        .<Integer, Integer>chunk(CHUNK)
+                        .reader(new CustomItemReader<>(ITEMS))
+                        .writer(items -> { })
+                        .build())
+                .build();
+
+        JobExecution jobExecution = jobLauncher.run(job, new JobParametersBuilder().addLong("run", run++).toJobParameters());
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException(jobExecution.getAllFailureExceptions().toString());
+        }
+        return jobExecution;
+    }
+}
@@ -0,0 +1,91 @@
+package com.handler.batch.config.sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1,000,000건을 끝까지 읽는 시간. (reader 생성 비용은 제외)
+ * legacy 는 items.remove(0) 으로 읽던 이전 CustomItemReader. 1건마다 배열 전체를 shift 하므로 O(n²)이라 single shot 으로 측정한다.
+ *
+ * mvn -Pbenchmark -DskipTests verify -Djmh.args="CustomItemReaderBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CustomItemReaderBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    @Param({"legacy", "index", "concurrent"})
+    private String reader;
+
+    private List<String> items;
+    private ItemReader<String> itemReader;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            items.add(i + "");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newReader() {
+        switch (reader) {
+            case "legacy":
+                itemReader = new LegacyItemReader<>(items);
+                break;
+            case "index":
+                itemReader = new CustomItemReader<>(items);
+                break;
+            default:
+                itemReader = new ConcurrentListItemReader<>(items);
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        String item;
+
+        while ((item = itemReader.read()) != null) {
+            blackhole.consume(item);
+        }
+    }
+
+    static class LegacyItemReader<T> implements ItemReader<T> {
+
+        private final List<T> items;
+
+        LegacyItemReader(List<T> items) {
+            this.items = new ArrayList<>(items);
+        }
+
+        @Override
+        public T read() {
+            if (!items.isEmpty()) return items.remove(0);
+
+            return null;
+        }
+    }
+}
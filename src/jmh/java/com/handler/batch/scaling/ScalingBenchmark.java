@@ -0,0 +1,169 @@
+package com.handler.batch.scaling;
+
+import com.handler.batch.HandlerBatchApplication;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 같은 등급 상향 로직을 다른 동시성 모델로 구현한 job 비교. (fusedUserJob : orders 1회 scan)
+ *
+ * 크기별로 user / orders를 JDBC batch로 미리 적재하고 (saveUserStep은 userSize=0 으로 건너뜀)
+ * job 마다 warm-up 1회 후 측정한다. wall time, items/s, peak heap, GC 시간, step 별 SQL 수를 표로 출력한다.
+ *
+ * mvn -Pbenchmark -DskipTests verify -Djmh.skip=true -Dscaling.skip=false -Dscaling.args="40000 1000000"
+ * 10M 은 heap이 부족하므로 file DB와 큰 heap 사용 : -Dscaling.url=jdbc:h2:file:./target/scaling -Xmx8g
+ */
+public class ScalingBenchmark {
+
+    private static final List<String> JOBS = Arrays.asList(
+            "userJob", "multiThreadUserJob", "asyncUserJob", "partitionUserJob", "parallelUserJob", "fusedUserJob");
+    private static final int[] AMOUNTS = {1_000, 200_000, 300_000, 500_000};
+    private static final int WARM_UP_SIZE = 40_000;
+    private static final int INSERT_BATCH = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> sizes = args.length == 0
+                ? Arrays.asList(40_000, 1_000_000, 10_000_000)
+                : Arrays.stream(args).map(Integer::parseInt).collect(Collectors.toList());
+
+        StepMetricsListener stepMetrics = new StepMetricsListener();
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HandlerBatchApplication.class)
+                .properties(
+                        "spring.batch.job.enabled=false",
+                        "spring.datasource.url=" + System.getProperty("scaling.url", "jdbc:h2:mem:scaling;DB_CLOSE_DELAY=-1"),
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "server.port=0")
+                .initializers(applicationContext -> {
+                    applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                        @Override
+                        public Object postProcessAfterInitialization(Object bean, String beanName) {
+                            return bean instanceof DataSource ? StatementCountingDataSource.wrap((DataSource) bean) : bean;
+                        }
+                    });
+                    applicationContext.getBeanFactory().addBeanPostProcessor(stepMetrics);
+                })
+                .run();
+
+        try {
+            JobLauncher jobLauncher = context.getBean(JobLauncher.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            List<String> rows = new ArrayList<>();
+
+            for (String jobName : JOBS) {
+                load(jdbcTemplate, WARM_UP_SIZE);
+                run(jobLauncher, context.getBean(jobName, Job.class));
+                stepMetrics.drain();
+            }
+
+            for (int size : sizes) {
+                for (String jobName : JOBS) {
+                    load(jdbcTemplate, size);
+                    rows.addAll(measure(jobLauncher, context.getBean(jobName, Job.class), size, stepMetrics));
+                }
+            }
+
+            System.out.println();
+            System.out.println(String.format("%-10s %-20s %-45s %10s %12s %10s %8s %10s",
+                    "users", "job", "step", "millis", "items/s", "heap MB", "gc ms", "sql"));
+            rows.forEach(System.out::println);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<String> measure(JobLauncher jobLauncher, Job job, int size, StepMetricsListener stepMetrics) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long gcStart = gcMillis();
+        long statementStart = StatementCountingDataSource.count();
+        long start = System.currentTimeMillis();
+
+        JobExecution jobExecution = run(jobLauncher, job);
+
+        long millis = System.currentTimeMillis() - start;
+        long gc = gcMillis() - gcStart;
+        long statements = StatementCountingDataSource.count() - statementStart;
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() / (1024 * 1024);
+
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format("%-10d %-20s %-45s %10d %12.0f %10d %8d %10d",
+                size, job.getName(), "(job " + jobExecution.getStatus() + ")", millis, size * 1000.0 / millis, peakHeap, gc, statements));
+
+        for (StepMetricsListener.StepMetrics step : stepMetrics.drain()) {
+            rows.add(String.format("%-10s %-20s %-45s %10d %12.0f %10s %8s %10d",
+                    "", "", step.stepName + " (r " + step.readCount + " / w " + step.writeCount + ")",
+                    step.millis, step.readCount * 1000.0 / Math.max(step.millis, 1), "", "", step.statements));
+        }
+
+        return rows;
+    }
+
+    private static JobExecution run(JobLauncher jobLauncher, Job job) throws Exception {
+        JobExecution jobExecution = jobLauncher.run(job, new JobParametersBuilder()
+                .addLong("userSize", 0L)
+                .addLong("time", System.nanoTime())
+                .toJobParameters());
+
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            System.err.println(job.getName() + " : " + jobExecution.getStatus() + " " + jobExecution.getAllFailureExceptions());
+        }
+
+        return jobExecution;
+    }
+
+    /**
+     * SaveUserTasklet과 같은 분포 (주문 1건, 금액 4종류 균등)로 size 명을 적재한다.
+     */
+    private static void load(JdbcTemplate jdbcTemplate, int size) {
+        jdbcTemplate.execute("set referential_integrity false");
+        jdbcTemplate.execute("truncate table orders");
+        jdbcTemplate.execute("truncate table user");
+        jdbcTemplate.execute("set referential_integrity true");
+
+        Date createdDate = Date.valueOf(LocalDate.of(2022, 7, 1));
+
+        for (int from = 1; from <= size; from += INSERT_BATCH) {
+            List<Object[]> users = new ArrayList<>(INSERT_BATCH);
+            List<Object[]> orders = new ArrayList<>(INSERT_BATCH);
+
+            for (int id = from; id < from + INSERT_BATCH && id <= size; id++) {
+                users.add(new Object[] {id, "test username" + id, "NORMAL"});
+                orders.add(new Object[] {id, "item + " + id, AMOUNTS[id % AMOUNTS.length], createdDate, id});
+            }
+
+            jdbcTemplate.batchUpdate("insert into user (id, username, level) values (?, ?, ?)", users);
+            jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, ?, ?, ?, ?)", orders);
+        }
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
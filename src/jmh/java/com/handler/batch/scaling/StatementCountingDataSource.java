@@ -0,0 +1,69 @@
+package com.handler.batch.scaling;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 실행된 SQL 수를 세는 DataSource proxy. execute* 호출 1번을 1건으로 센다. (executeBatch도 1건)
+ */
+public final class StatementCountingDataSource {
+
+    private static final LongAdder STATEMENTS = new LongAdder();
+
+    private StatementCountingDataSource() {
+    }
+
+    public static long count() {
+        return STATEMENTS.sum();
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return (DataSource) proxy(DataSource.class, dataSource);
+    }
+
+    private static Object proxy(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[] {type},
+                new CountingHandler(target));
+    }
+
+    private static class CountingHandler implements InvocationHandler {
+
+        private final Object target;
+
+        private CountingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                STATEMENTS.increment();
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof Connection && !(result instanceof Proxy)) {
+                return proxy(Connection.class, result);
+            }
+
+            if (result instanceof Statement && !(result instanceof Proxy)) {
+                // Statement / PreparedStatement / CallableStatement
+                Class<?> type = Statement.class.isAssignableFrom(method.getReturnType()) ? method.getReturnType() : Statement.class;
+                return proxy(type, result);
+            }
+
+            return result;
+        }
+    }
+}
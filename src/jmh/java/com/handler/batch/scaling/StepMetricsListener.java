@@ -0,0 +1,75 @@
+package com.handler.batch.scaling;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.step.AbstractStep;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 모든 step에 등록되어 step 별 처리 건수 / 시간 / SQL 수를 기록한다.
+ * partition worker step(이름에 ':partition' 포함)은 manager step에 포함되므로 따로 기록하지 않는다.
+ * 동시에 실행되는 step(split flow)의 SQL 수는 서로 겹쳐서 집계된다.
+ */
+public class StepMetricsListener implements StepExecutionListener, BeanPostProcessor {
+
+    private final Map<Long, Long> startStatements = new ConcurrentHashMap<>();
+    private final List<StepMetrics> results = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractStep) {
+            ((AbstractStep) bean).registerStepExecutionListener(this);
+        }
+        return bean;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        startStatements.put(stepExecution.getId(), StatementCountingDataSource.count());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        long statements = StatementCountingDataSource.count() - startStatements.remove(stepExecution.getId());
+
+        if (!stepExecution.getStepName().contains(":partition")) {
+            // afterStep 시점에는 endTime이 아직 없다.
+            long millis = System.currentTimeMillis() - stepExecution.getStartTime().getTime();
+            results.add(new StepMetrics(stepExecution.getStepName(), stepExecution.getReadCount(),
+                    stepExecution.getWriteCount(), millis, statements));
+        }
+
+        return null;
+    }
+
+    public List<StepMetrics> drain() {
+        synchronized (results) {
+            List<StepMetrics> drained = new ArrayList<>(results);
+            results.clear();
+            return drained;
+        }
+    }
+
+    public static class StepMetrics {
+        final String stepName;
+        final int readCount;
+        final int writeCount;
+        final long millis;
+        final long statements;
+
+        StepMetrics(String stepName, int readCount, int writeCount, long millis, long statements) {
+            this.stepName = stepName;
+            this.readCount = readCount;
+            this.writeCount = writeCount;
+            this.millis = millis;
+            this.statements = statements;
+        }
+    }
+}
@@ -3,28 +3,22 @@ package com.handler.batch;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Primary;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 @EnableBatchProcessing
 public class HandlerBatchApplication {
 
     public static void main(String[] args) {
-        System.exit(SpringApplication.exit(SpringApplication.run(HandlerBatchApplication.class, args)));
-    }
+        ConfigurableApplicationContext context = SpringApplication.run(HandlerBatchApplication.class, args);
+
+        // remote partitioning/chunking worker는 채널을 계속 소비해야 하므로 종료하지 않는다.
+        // --batch.remote.role=worker --batch.remote.transport=jdbc (job.name 미지정)
+        if ("worker".equals(context.getEnvironment().getProperty("batch.remote.role"))) {
+            return;
+        }
 
-    @Bean
-    @Primary
-    TaskExecutor taskExecutor() {
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setCorePoolSize(10);
-        taskExecutor.setMaxPoolSize(20);
-        taskExecutor.setThreadNamePrefix("batch-thread-");
-        taskExecutor.initialize();
-        return taskExecutor;
+        System.exit(SpringApplication.exit(context));
     }
 
 }
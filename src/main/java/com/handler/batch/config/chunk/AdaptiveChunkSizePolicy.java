@@ -0,0 +1,188 @@
+package com.handler.batch.config.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * chunk 마다 처리 시간(read ~ commit)을 재서 다음 chunk 크기를 조정하는 CompletionPolicy.
+ *
+ * - 처리 시간이 targetMillis 보다 짧으면 늘리고 길면 줄인다. (한 번에 최대 2배 / 절반)
+ * - heap 사용률이 heapThreshold를 넘거나 DB lock 대기 시간이 chunk 시간의 1/4을 넘으면 절반으로 줄인다.
+ * - chunk가 rollback 되어도 절반으로 줄인다.
+ *
+ * 현재 크기와 변경 이력은 StepExecution의 ExecutionContext에 저장하고,
+ * 다음 실행은 같은 job / step 이름의 마지막 실행에서 수렴한 크기부터 시작한다.
+ *
+ * step 1개(thread 1개) 전용이다. partition worker에서는 @StepScope bean으로 partition 마다 따로 만든다.
+ * step에 StepExecutionListener, ChunkListener로 함께 등록해야 한다.
+ */
+@Slf4j
+public class AdaptiveChunkSizePolicy extends SimpleCompletionPolicy implements StepExecutionListener, ChunkListener {
+
+    public static final String CHUNK_SIZE = "adaptiveChunk.size";
+    public static final String CHUNK_HISTORY = "adaptiveChunk.history";
+
+    private static final int HISTORY_SIZE = 20;
+    private static final double TOLERANCE = 0.1;
+
+    private final long targetMillis;
+    private final int minSize;
+    private final int maxSize;
+    private final JobExplorer jobExplorer;
+
+    private double heapThreshold = 0.8;
+    private LongSupplier lockWaitMillis = () -> 0L;
+
+    private StepExecution stepExecution;
+    private final Deque<Integer> history = new ArrayDeque<>();
+    private long chunkStart;
+    private long lockWaitStart;
+
+    public AdaptiveChunkSizePolicy(long targetMillis, int initialSize, int minSize, int maxSize, JobExplorer jobExplorer) {
+        super(initialSize);
+        this.targetMillis = targetMillis;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.jobExplorer = jobExplorer;
+    }
+
+    public void setHeapThreshold(double heapThreshold) {
+        this.heapThreshold = heapThreshold;
+    }
+
+    /**
+     * 누적 lock 대기 시간(ms). chunk 전후 차이로 해당 chunk의 lock 대기 시간을 계산한다.
+     */
+    public void setLockWaitMillis(LongSupplier lockWaitMillis) {
+        this.lockWaitMillis = lockWaitMillis;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+        this.history.clear();
+
+        int initialSize = initialSize(stepExecution);
+        setChunkSize(initialSize);
+        record(initialSize);
+
+        log.info("{} chunk size start : {}", stepExecution.getStepName(), initialSize);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        log.info("{} chunk size converged : {} ({})", stepExecution.getStepName(), getChunkSize(), history);
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart = System.nanoTime();
+        lockWaitStart = lockWaitMillis.getAsLong();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        long elapsed = Math.max((System.nanoTime() - chunkStart) / 1_000_000, 1);
+        long lockWait = lockWaitMillis.getAsLong() - lockWaitStart;
+
+        int size = getChunkSize();
+        int next;
+
+        if (heapUsage() > heapThreshold || lockWait * 4 > elapsed) {
+            next = size / 2;
+        } else {
+            double ratio = Math.min(Math.max((double) targetMillis / elapsed, 0.5), 2.0);
+            next = (int) (size * ratio);
+        }
+
+        resize(next);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        resize(getChunkSize() / 2);
+    }
+
+    private void resize(int next) {
+        int size = getChunkSize();
+        next = Math.min(Math.max(next, minSize), maxSize);
+
+        // 작은 흔들림은 무시해서 수렴한 크기를 유지
+        if (Math.abs(next - size) <= size * TOLERANCE) {
+            return;
+        }
+
+        setChunkSize(next);
+        record(next);
+    }
+
+    private void record(int size) {
+        if (history.size() == HISTORY_SIZE) {
+            history.removeFirst();
+        }
+        history.addLast(size);
+
+        if (stepExecution != null) {
+            stepExecution.getExecutionContext().putInt(CHUNK_SIZE, size);
+            stepExecution.getExecutionContext().putString(CHUNK_HISTORY, history.toString());
+        }
+    }
+
+    private int initialSize(StepExecution stepExecution) {
+        // 재시작이면 같은 StepExecution context에 남아있는 크기
+        if (stepExecution.getExecutionContext().containsKey(CHUNK_SIZE)) {
+            return stepExecution.getExecutionContext().getInt(CHUNK_SIZE);
+        }
+
+        if (jobExplorer == null) {
+            return getChunkSize();
+        }
+
+        JobInstance current = stepExecution.getJobExecution().getJobInstance();
+        List<JobInstance> instances = jobExplorer.getJobInstances(current.getJobName(), 0, 5);
+
+        for (JobInstance instance : instances) {
+            if (instance.getInstanceId() == current.getInstanceId()) {
+                continue;
+            }
+
+            Integer size = jobExplorer.getJobExecutions(instance).stream()
+                    .sorted(Comparator.comparing(JobExecution::getId).reversed())
+                    .flatMap(execution -> execution.getStepExecutions().stream())
+                    .filter(previous -> previous.getStepName().equals(stepExecution.getStepName()))
+                    .filter(previous -> previous.getExecutionContext().containsKey(CHUNK_SIZE))
+                    .map(previous -> previous.getExecutionContext().getInt(CHUNK_SIZE))
+                    .findFirst()
+                    .orElse(null);
+
+            if (size != null) {
+                return Math.min(Math.max(size, minSize), maxSize);
+            }
+        }
+
+        return getChunkSize();
+    }
+
+    private double heapUsage() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        return (double) heap.getUsed() / max;
+    }
+}
@@ -0,0 +1,38 @@
+package com.handler.batch.config.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.LongSupplier;
+
+/**
+ * MySQL InnoDB의 누적 row lock 대기 시간(ms). (Innodb_row_lock_time)
+ * 조회에 실패하면(H2 등) 0을 반환하고 이후로는 조회하지 않는다.
+ */
+@Slf4j
+public class InnodbLockWaitProbe implements LongSupplier {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean available = true;
+
+    public InnodbLockWaitProbe(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public long getAsLong() {
+        if (!available) {
+            return 0L;
+        }
+
+        try {
+            return jdbcTemplate.query("show global status like 'Innodb_row_lock_time'",
+                    resultSet -> resultSet.next() ? resultSet.getLong(2) : 0L);
+        } catch (RuntimeException e) {
+            log.warn("lock wait time not available : {}", e.getMessage());
+            available = false;
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.handler.batch.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * 쓰기용(primary) / 읽기용(replica) DataSource.
+ *
+ * - dataSource (@Primary) : spring.datasource.* . JPA, writer, JobRepository 메타 데이터
+ * - readDataSource : batch.datasource.read.* . 통계 같은 대량 조회 reader 전용, 별도 pool 크기, read-only connection
+ *   batch.datasource.read.url이 없으면 primary를 그대로 사용한다.
+ *
+ * replica는 비동기 복제이므로 lag 만큼 primary 보다 과거 데이터가 보인다.
+ * 같은 job의 앞 step이 쓴 데이터를 읽는 step(saveUserStep -> userLevelUpStep)은 replica를 쓰면 누락되므로 primary에서 읽는다.
+ *
+ * 로컬 확인 (embedded H2 2개)
+ * --batch.datasource.read.url=jdbc:h2:mem:replica --batch.datasource.read.hikari.maximum-pool-size=4
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfiguration {
+
+    public static final String READ = "readDataSource";
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean(READ)
+    DataSource readDataSource(HikariDataSource dataSource, Environment environment) throws Exception {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties properties = binder.bind("batch.datasource.read", DataSourceProperties.class).orElse(null);
+
+        if (properties == null || !StringUtils.hasText(properties.getUrl())) {
+            log.info("read data source not configured, readers use the primary data source");
+            return dataSource;
+        }
+
+        properties.setBeanClassLoader(getClass().getClassLoader());
+        properties.afterPropertiesSet();
+
+        HikariDataSource readDataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("batch.datasource.read.hikari", Bindable.ofInstance(readDataSource));
+        readDataSource.setReadOnly(true);
+
+        if (readDataSource.getPoolName() == null) {
+            readDataSource.setPoolName("read");
+        }
+
+        log.info("read data source : {} (max pool size {})", properties.getUrl(), readDataSource.getMaximumPoolSize());
+        return readDataSource;
+    }
+}
@@ -0,0 +1,25 @@
+package com.handler.batch.config.executor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * queue가 가득 차면 빈 자리가 생길 때까지 제출하는 thread를 대기시킨다. (backpressure)
+ */
+public class BlockingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    @Override
+    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("executor has been shut down");
+        }
+
+        try {
+            executor.getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for queue space", e);
+        }
+    }
+}
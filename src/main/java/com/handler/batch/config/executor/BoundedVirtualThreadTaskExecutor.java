@@ -0,0 +1,97 @@
+package com.handler.batch.config.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 작업마다 virtual thread를 만들어 실행하고, 동시 실행 수는 semaphore(= connection pool 크기)로 제한한다.
+ * worker 대부분이 JDBC 대기 상태이므로 platform thread 개수가 아니라 connection 개수가 실제 한계다.
+ *
+ * permit은 virtual thread 안에서 얻기 때문에 submit 하는 쪽은 막히지 않는다.
+ * permit을 쥔 작업이 다시 작업을 제출하면(split flow -> partition 등) 안쪽 작업은 제출한 thread에서 바로 실행한다. (inline)
+ * 바깥 작업의 permit(= connection)을 그대로 쓰므로 동시 실행 수가 maxConcurrency를 넘지 않고,
+ * 바깥 작업이 permit을 모두 쥔 채 안쪽 작업을 기다리는 deadlock도 생기지 않는다. 대신 안쪽 작업은 순서대로 실행된다.
+ */
+@Slf4j
+public class BoundedVirtualThreadTaskExecutor implements TaskExecutor, DisposableBean {
+
+    private final ExecutorService executorService;
+    private final Semaphore permits;
+    private final ThreadLocal<Boolean> holdingPermit = ThreadLocal.withInitial(() -> false);
+    private final AtomicInteger nestedSubmissionCount = new AtomicInteger();
+
+    public BoundedVirtualThreadTaskExecutor(ExecutorService executorService, int maxConcurrency) {
+        this.executorService = executorService;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * JDK 21 이상이면 virtual thread executor를 만든다. (컴파일 대상은 1.8 이므로 reflection 사용)
+     */
+    public static Optional<BoundedVirtualThreadTaskExecutor> create(int maxConcurrency) {
+        try {
+            ExecutorService executorService = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+
+            // JDBC driver가 synchronized 안에서 대기하면 carrier thread가 pin 되어 carrier 수 만큼만 동시에 실행된다.
+            int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+            if (parallelism < maxConcurrency) {
+                log.warn("virtual thread carriers({}) < max concurrency({}). set -Djdk.virtualThreadScheduler.parallelism={}",
+                        parallelism, maxConcurrency, maxConcurrency);
+            }
+
+            return Optional.of(new BoundedVirtualThreadTaskExecutor(executorService, maxConcurrency));
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual thread is not supported on java {}", System.getProperty("java.version"));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (holdingPermit.get()) {
+            nestedSubmissionCount.incrementAndGet();
+            task.run();
+            return;
+        }
+
+        executorService.execute(() -> {
+            permits.acquireUninterruptibly();
+            holdingPermit.set(true);
+            try {
+                task.run();
+            } finally {
+                holdingPermit.remove();
+                permits.release();
+            }
+        });
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * permit을 기다리는 작업 수 (추정치)
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public int getNestedSubmissionCount() {
+        return nestedSubmissionCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.handler.batch.config.executor;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * job 실행 시점에 ConcurrencyTuner가 정한 동시성 설정.
+ */
+@Getter
+@ToString
+public class ConcurrencyPlan {
+
+    private final int gridSize;
+    private final int throttleLimit;
+    private final int asyncConcurrency;
+
+    public ConcurrencyPlan(int gridSize, int throttleLimit, int asyncConcurrency) {
+        this.gridSize = gridSize;
+        this.throttleLimit = throttleLimit;
+        this.asyncConcurrency = asyncConcurrency;
+    }
+}
@@ -0,0 +1,156 @@
+package com.handler.batch.config.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.Partitioner;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * core 수, connection pool 크기, 이전 실행의 partition 처리량으로 job 별 동시성을 정한다.
+ *
+ * - throttleLimit : min(사용 가능한 connection / 2, core * 2). worker thread 1개가 connection을 2개 잡는다.
+ *                   (열어 둔 reader cursor 1개 + chunk 트랜잭션 1개)
+ * - gridSize : partition 1개가 targetPartitionSeconds 정도 걸리도록 나눈다. (worker 수 ~ worker 수 * 4)
+ *              이전 실행 기록이 없으면 worker 수와 같다.
+ * - asyncConcurrency : chunk 당 동시에 처리할 slice 수. CPU 작업이므로 core 수.
+ *
+ * plan은 step이 시작할 때 구한다. (context 시작 시점이 아니라 실행할 때마다 최신 이력을 본다)
+ * - partition step : partitioner(jobName, delegate) 로 감싸면 partition 시점에 gridSize를 정한다.
+ * - multi-thread / async step : @JobScope step 생성 시 plan(jobName)
+ *
+ * 사용 가능한 connection = maximumPoolSize - reserved (job thread의 JobRepository 갱신 등)
+ * connection 보다 많은 thread를 쓰도록 설정되어 있으면 getConnection() 대기만 늘어나므로 시작 시점에 실패시킨다.
+ */
+@Slf4j
+public class ConcurrencyTuner {
+
+    private static final int RESERVED_CONNECTIONS = 2;
+    private static final int CONNECTIONS_PER_WORKER = 2;
+    private static final int MAX_GRID_FACTOR = 4;
+
+    private final int cores;
+    private final int connections;
+    private final int partitionPoolSize;
+    private final JobExplorer jobExplorer;
+    private final long targetPartitionSeconds;
+
+    private int gridSize;
+    private int throttleLimit;
+
+    public ConcurrencyTuner(int cores, int connections, int partitionPoolSize, JobExplorer jobExplorer, long targetPartitionSeconds) {
+        this.cores = cores;
+        this.connections = connections;
+        this.partitionPoolSize = partitionPoolSize;
+        this.jobExplorer = jobExplorer;
+        this.targetPartitionSeconds = targetPartitionSeconds;
+
+        check(partitionPoolSize, "batch.executor.partition.pool-size");
+    }
+
+    /**
+     * 고정 값 지정. (0 이하면 자동)
+     */
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    public void setThrottleLimit(int throttleLimit) {
+        check(throttleLimit, "batch.concurrency.throttle-limit");
+        this.throttleLimit = throttleLimit;
+    }
+
+    public ConcurrencyPlan plan(String jobName) {
+        int throttle = throttleLimit > 0 ? throttleLimit : Math.max(1, Math.min(maxWorkers(), cores * 2));
+        int workers = Math.min(throttle, partitionPoolSize);
+        int grid = gridSize > 0 ? gridSize : gridSize(jobName, workers);
+
+        ConcurrencyPlan plan = new ConcurrencyPlan(grid, throttle, cores);
+        log.info("{} {} (cores={}, connections={}, partition pool={})", jobName, plan, cores, connections, partitionPoolSize);
+
+        return plan;
+    }
+
+    /**
+     * PartitionHandler의 고정 gridSize 대신 partition 할 때마다 plan의 gridSize로 나눈다.
+     */
+    public Partitioner partitioner(String jobName, Partitioner delegate) {
+        return gridSize -> delegate.partition(plan(jobName).getGridSize());
+    }
+
+    private int availableConnections() {
+        return connections - RESERVED_CONNECTIONS;
+    }
+
+    private int maxWorkers() {
+        return availableConnections() / CONNECTIONS_PER_WORKER;
+    }
+
+    private void check(int threads, String property) {
+        if (threads > maxWorkers()) {
+            throw new IllegalStateException(String.format(
+                    "%s=%d oversubscribes the connection pool: each worker holds %d connections (reader cursor + chunk transaction) " +
+                            "and only %d connections are available to workers (maximumPoolSize %d - reserved %d), so at most %d workers. " +
+                            "Lower %s or raise spring.datasource.hikari.maximum-pool-size.",
+                    property, threads, CONNECTIONS_PER_WORKER, availableConnections(), connections, RESERVED_CONNECTIONS,
+                    maxWorkers(), property));
+        }
+    }
+
+    private int gridSize(String jobName, int workers) {
+        List<StepExecution> partitions = lastPartitions(jobName);
+
+        if (partitions.isEmpty()) {
+            return workers;
+        }
+
+        long items = partitions.stream().mapToLong(StepExecution::getReadCount).sum();
+        double throughput = partitions.stream()
+                .mapToDouble(partition -> partition.getReadCount() / seconds(partition))
+                .average()
+                .orElse(0);
+
+        if (items == 0 || throughput <= 0) {
+            return workers;
+        }
+
+        // partition 1개가 targetPartitionSeconds 동안 처리할 수 있는 건수로 나눈다.
+        int grid = (int) Math.ceil(items / (throughput * targetPartitionSeconds));
+        return Math.min(Math.max(grid, workers), workers * MAX_GRID_FACTOR);
+    }
+
+    private List<StepExecution> lastPartitions(String jobName) {
+        try {
+            List<JobInstance> instances = jobExplorer.getJobInstances(jobName, 0, 1);
+
+            if (instances.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            return jobExplorer.getJobExecutions(instances.get(0)).stream()
+                    .max(Comparator.comparing(JobExecution::getId))
+                    .map(execution -> execution.getStepExecutions().stream()
+                            .filter(step -> step.getStepName().contains(":partition"))
+                            .filter(step -> step.getStatus() == BatchStatus.COMPLETED)
+                            .filter(step -> step.getStartTime() != null && step.getEndTime() != null)
+                            .collect(Collectors.toList()))
+                    .orElse(Collections.emptyList());
+        } catch (RuntimeException e) {
+            // 메타 테이블이 아직 없는 첫 실행 등
+            log.debug("no partition history for {} : {}", jobName, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private double seconds(StepExecution stepExecution) {
+        long millis = stepExecution.getEndTime().getTime() - stepExecution.getStartTime().getTime();
+        return Math.max(millis, 1) / 1000.0;
+    }
+}
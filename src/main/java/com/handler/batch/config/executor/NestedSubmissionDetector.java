@@ -0,0 +1,58 @@
+package com.handler.batch.config.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * pool의 worker thread가 같은 pool에 작업을 다시 제출하는지 감지한다.
+ * 바깥 작업이 thread를 모두 잡고 안쪽 작업 완료를 기다리면 pool이 멈추기(deadlock) 때문에,
+ * strict 모드(테스트)에서는 제출 시점에 바로 예외를 던진다.
+ */
+@Slf4j
+public class NestedSubmissionDetector implements TaskDecorator {
+
+    private static final ThreadLocal<String> CURRENT_POOL = new ThreadLocal<>();
+
+    private final String poolName;
+    private final boolean strict;
+    private final AtomicInteger nestedSubmissionCount = new AtomicInteger();
+
+    public NestedSubmissionDetector(String poolName, boolean strict) {
+        this.poolName = poolName;
+        this.strict = strict;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        // decorate는 제출하는 thread에서 호출된다.
+        if (poolName.equals(CURRENT_POOL.get())) {
+            nestedSubmissionCount.incrementAndGet();
+
+            if (strict) {
+                throw new IllegalStateException("nested submission to '" + poolName + "' from its own worker thread " + Thread.currentThread().getName());
+            }
+
+            log.warn("nested submission to '{}' from its own worker thread {}", poolName, Thread.currentThread().getName());
+        }
+
+        return () -> {
+            String previous = CURRENT_POOL.get();
+            CURRENT_POOL.set(poolName);
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT_POOL.remove();
+                } else {
+                    CURRENT_POOL.set(previous);
+                }
+            }
+        };
+    }
+
+    public int getNestedSubmissionCount() {
+        return nestedSubmissionCount.get();
+    }
+}
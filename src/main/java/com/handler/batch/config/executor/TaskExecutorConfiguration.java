@@ -0,0 +1,153 @@
+package com.handler.batch.config.executor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * batch.executor.mode
+ * - platform (default) : ThreadPoolTaskExecutor (core 10, max 20)
+ * - virtual : virtual thread + connection pool 크기 만큼의 semaphore (JDK 21 이상, 미만이면 platform 으로 동작)
+ *
+ * 역할별 pool (중첩 제출로 인한 starvation/deadlock 방지)
+ * - flowSplitTaskExecutor : split flow
+ * - partitionTaskExecutor : partition worker step
+ * - asyncItemTaskExecutor : SlicedChunkProcessor 의 slice 처리 (queue가 차면 caller runs)
+ * 각 job의 동시성(grid size, throttle limit)은 ConcurrencyTuner가 connection pool 크기에 맞춰 정한다.
+ * 모든 pool은 queue 크기가 제한되어 있어 maxPoolSize가 실제로 적용되며, queue depth/active thread는 Micrometer로 수집한다.
+ * virtual 모드에서는 역할별로 pool 크기 만큼의 permit을 가진 virtual thread executor를 따로 만든다.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class TaskExecutorConfiguration {
+
+    public static final String FLOW_SPLIT = "flowSplitTaskExecutor";
+    public static final String PARTITION = "partitionTaskExecutor";
+    public static final String ASYNC_ITEM = "asyncItemTaskExecutor";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${batch.executor.mode:platform}")
+    private String mode;
+
+    @Value("${batch.executor.detect-nested-submission:true}")
+    private boolean detectNestedSubmission;
+
+    @Bean
+    @Primary
+    TaskExecutor taskExecutor(DataSource dataSource) {
+        return virtual("batch", connectionPoolSize(dataSource))
+                .orElseGet(() -> pool("batch", 10, 20, 100, new BlockingRejectedExecutionHandler()));
+    }
+
+    @Bean(FLOW_SPLIT)
+    TaskExecutor flowSplitTaskExecutor(@Value("${batch.executor.flow-split.pool-size:4}") int poolSize,
+                                       @Value("${batch.executor.flow-split.queue-capacity:16}") int queueCapacity) {
+        return virtual("flow-split", poolSize)
+                .orElseGet(() -> pool("flow-split", poolSize, poolSize, queueCapacity, new BlockingRejectedExecutionHandler()));
+    }
+
+    @Bean(PARTITION)
+    TaskExecutor partitionTaskExecutor(@Value("${batch.executor.partition.pool-size:4}") int poolSize,
+                                       @Value("${batch.executor.partition.queue-capacity:64}") int queueCapacity) {
+        return virtual("partition", poolSize)
+                .orElseGet(() -> pool("partition", poolSize, poolSize, queueCapacity, new BlockingRejectedExecutionHandler()));
+    }
+
+    @Bean(ASYNC_ITEM)
+    TaskExecutor asyncItemTaskExecutor(@Value("${batch.executor.async-item.pool-size:4}") int poolSize,
+                                       @Value("${batch.executor.async-item.queue-capacity:2000}") int queueCapacity) {
+        int maxPoolSize = Math.max(poolSize, Runtime.getRuntime().availableProcessors());
+
+        // queue가 차면 chunk thread가 직접 처리 -> 읽기 속도가 처리 속도에 맞춰진다.
+        return virtual("async-item", maxPoolSize)
+                .orElseGet(() -> pool("async-item", poolSize, maxPoolSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy()));
+    }
+
+    /**
+     * job 별 grid size / throttle limit / async 동시성. connection pool 보다 많은 worker가 설정되어 있으면 시작 시 실패한다.
+     */
+    @Bean
+    ConcurrencyTuner concurrencyTuner(DataSource dataSource,
+                                      JobExplorer jobExplorer,
+                                      @Value("${batch.executor.partition.pool-size:4}") int partitionPoolSize,
+                                      @Value("${batch.concurrency.grid-size:0}") int gridSize,
+                                      @Value("${batch.concurrency.throttle-limit:0}") int throttleLimit,
+                                      @Value("${batch.concurrency.target-partition-seconds:30}") long targetPartitionSeconds) {
+        ConcurrencyTuner concurrencyTuner = new ConcurrencyTuner(Runtime.getRuntime().availableProcessors(),
+                connectionPoolSize(dataSource), partitionPoolSize, jobExplorer, targetPartitionSeconds);
+        concurrencyTuner.setGridSize(gridSize);
+        concurrencyTuner.setThrottleLimit(throttleLimit);
+
+        return concurrencyTuner;
+    }
+
+    private ThreadPoolTaskExecutor pool(String name, int corePoolSize, int maxPoolSize, int queueCapacity,
+                                        RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(corePoolSize);
+        taskExecutor.setMaxPoolSize(maxPoolSize);
+        taskExecutor.setQueueCapacity(queueCapacity);
+        taskExecutor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        taskExecutor.setThreadNamePrefix(name + "-thread-");
+        taskExecutor.setTaskDecorator(new NestedSubmissionDetector(name, detectNestedSubmission));
+        taskExecutor.initialize();
+
+        // executor.queued, executor.active, executor.pool.size ... {name=batch.xxx}
+        new ExecutorServiceMetrics(taskExecutor.getThreadPoolExecutor(), "batch." + name, Tags.empty())
+                .bindTo(meterRegistry);
+
+        return taskExecutor;
+    }
+
+    /**
+     * batch.executor.mode=virtual 이고 JDK 21 이상이면 maxConcurrency 만큼의 permit을 가진 virtual thread executor.
+     */
+    private Optional<TaskExecutor> virtual(String name, int maxConcurrency) {
+        if (!"virtual".equalsIgnoreCase(mode)) {
+            return Optional.empty();
+        }
+
+        return BoundedVirtualThreadTaskExecutor.create(maxConcurrency).map(taskExecutor -> {
+            log.info("virtual thread task executor '{}', max concurrency : {}", name, maxConcurrency);
+
+            // ThreadPoolExecutor 의 executor.active / executor.queued 에 대응
+            Tags tags = Tags.of("name", "batch." + name);
+            Gauge.builder("executor.active", taskExecutor, executor -> maxConcurrency - executor.getAvailablePermits())
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("executor.queued", taskExecutor, BoundedVirtualThreadTaskExecutor::getQueueLength)
+                    .tags(tags)
+                    .register(meterRegistry);
+
+            return taskExecutor;
+        });
+    }
+
+    private int connectionPoolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            return ((HikariDataSource) dataSource).getMaximumPoolSize();
+        }
+
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,48 @@
+package com.handler.batch.config.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * batch.metrics.enabled=true 이면 StepBuilderFactory가 만드는 모든 step builder에 ChunkMetricsListener를 등록한다.
+ * builder가 chunk / item listener로 나눠 등록하므로 chunk step (SlicedStepBuilder 포함) 이면 read / process / write 도 기록된다.
+ * (job 설정을 고치지 않아도 됨)
+ *
+ * Micrometer global registry에 기록하고 actuator의 /actuator/prometheus 로 노출한다.
+ * job이 끝나면 프로세스가 종료되므로 scrape 주기보다 짧은 job은 worker 처럼 떠 있는 프로세스에서 확인한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "batch.metrics.enabled", havingValue = "true")
+public class ChunkMetricsConfiguration {
+
+    @Bean
+    static BeanPostProcessor chunkMetricsBeanPostProcessor(@Value("${batch.metrics.item-sample-rate:100}") int itemSampleRate) {
+        ChunkMetricsListener listener = new ChunkMetricsListener(Metrics.globalRegistry, itemSampleRate);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof StepBuilderFactory) {
+                    return metered((StepBuilderFactory) bean, listener);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static StepBuilderFactory metered(StepBuilderFactory stepBuilderFactory, ChunkMetricsListener listener) {
+        return new StepBuilderFactory(null, null) {
+            @Override
+            public StepBuilder get(String name) {
+                return stepBuilderFactory.get(name).listener((StepExecutionListener) listener);
+            }
+        };
+    }
+}
@@ -0,0 +1,247 @@
+package com.handler.batch.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chunk 마다 read / process / write / commit 시간과 초당 처리 건수를 histogram으로 기록한다. (tag : job, step, partition)
+ *
+ * - batch.chunk.read / process / write : chunk 1개에서 해당 단계에 쓴 시간
+ *   chunk는 전부 읽은 다음 process, write 하므로 단계 경계(첫 process, 첫 write)에서만 시간을 잰다. (item 마다 nanoTime 호출 없음)
+ * - batch.chunk.commit : write 종료 ~ commit 완료(afterChunk)
+ * - batch.chunk.duration : chunk 1개 전체 시간, batch.chunk.throughput : 읽은 건수 / chunk 시간(초)
+ * - batch.item.read / process : itemSampleRate 건 마다 1건만 기록 (item 단위 histogram 비용을 줄인다)
+ *
+ * chunk는 한 thread에서 read -> process -> write -> commit 하므로 진행 중인 chunk 상태는 ThreadLocal에 둔다. (multi-thread step 가능)
+ * SlicedChunkProcessor는 첫 slice를 chunk thread에서 처리하므로 process 시간은 첫 process ~ write 시작 (slice 대기 포함)이다.
+ *
+ * StepExecutionListener로 step builder에 등록하면 AbstractTaskletStepBuilder / SimpleStepBuilder가 chunk, item listener로도 등록한다.
+ */
+public class ChunkMetricsListener implements StepExecutionListener, ChunkListener, ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    private final MeterRegistry meterRegistry;
+    private final int itemSampleRate;
+
+    private final Map<String, StepMeters> meters = new ConcurrentHashMap<>();
+    private final ThreadLocal<ChunkState> chunkState = ThreadLocal.withInitial(ChunkState::new);
+
+    public ChunkMetricsListener(MeterRegistry meterRegistry, int itemSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.itemSampleRate = Math.max(itemSampleRate, 1);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        ChunkState state = chunkState.get();
+
+        state.meters = meters.computeIfAbsent(stepExecution.getJobExecution().getJobInstance().getJobName()
+                + "/" + stepExecution.getStepName(), key -> new StepMeters(stepExecution));
+        state.start = System.nanoTime();
+        state.processStart = 0;
+        state.writeStart = 0;
+        state.write = 0;
+        state.writeEnd = 0;
+        state.items = 0;
+        state.processed = 0;
+        state.nextReadSample = itemSampleRate;
+        state.nextProcessSample = itemSampleRate;
+    }
+
+    @Override
+    public void beforeRead() {
+        ChunkState state = chunkState.get();
+
+        if (state.items + 1 == state.nextReadSample) {
+            state.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        ChunkState state = chunkState.get();
+        state.items++;
+
+        if (state.meters != null && state.items == state.nextReadSample) {
+            state.meters.itemRead.record(System.nanoTime() - state.mark, TimeUnit.NANOSECONDS);
+            state.nextReadSample += itemSampleRate;
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        ChunkState state = chunkState.get();
+
+        if (state.processStart == 0) {
+            state.processStart = System.nanoTime();
+        }
+
+        if (state.processed + 1 == state.nextProcessSample) {
+            state.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        ChunkState state = chunkState.get();
+        state.processed++;
+
+        if (state.meters != null && state.processed == state.nextProcessSample) {
+            state.meters.itemProcess.record(System.nanoTime() - state.mark, TimeUnit.NANOSECONDS);
+            state.nextProcessSample += itemSampleRate;
+        }
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        ChunkState state = chunkState.get();
+        state.mark = System.nanoTime();
+
+        if (state.writeStart == 0) {
+            state.writeStart = state.mark;
+        }
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        ChunkState state = chunkState.get();
+        state.writeEnd = System.nanoTime();
+        state.write += state.writeEnd - state.mark;
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkState state = chunkState.get();
+
+        // 마지막 빈 chunk 등 읽은 item이 없으면 기록하지 않는다.
+        if (state.meters == null || state.items == 0) {
+            state.meters = null;
+            return;
+        }
+
+        long end = System.nanoTime();
+        long duration = end - state.start;
+        long writeStart = state.writeStart > 0 ? state.writeStart : end;
+        long readEnd = state.processStart > 0 ? state.processStart : writeStart;
+        StepMeters stepMeters = state.meters;
+
+        stepMeters.read.record(readEnd - state.start, TimeUnit.NANOSECONDS);
+        stepMeters.process.record(writeStart - readEnd, TimeUnit.NANOSECONDS);
+        stepMeters.write.record(state.write, TimeUnit.NANOSECONDS);
+        stepMeters.duration.record(duration, TimeUnit.NANOSECONDS);
+
+        if (state.writeEnd > 0) {
+            stepMeters.commit.record(end - state.writeEnd, TimeUnit.NANOSECONDS);
+        }
+
+        if (duration > 0) {
+            stepMeters.throughput.record(state.items * 1_000_000_000d / duration);
+        }
+
+        state.meters = null;
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        chunkState.get().meters = null;
+    }
+
+    private static class ChunkState {
+        private StepMeters meters;
+        private long start;
+        private long mark;
+        private long processStart;
+        private long writeStart;
+        private long write;
+        private long writeEnd;
+        private int items;
+        private int processed;
+        private int nextReadSample;
+        private int nextProcessSample;
+    }
+
+    private class StepMeters {
+        private final Timer read;
+        private final Timer process;
+        private final Timer write;
+        private final Timer commit;
+        private final Timer duration;
+        private final Timer itemRead;
+        private final Timer itemProcess;
+        private final DistributionSummary throughput;
+
+        private StepMeters(StepExecution stepExecution) {
+            String stepName = stepExecution.getStepName();
+            int separator = stepName.indexOf(':');
+
+            // partition worker step 이름 : {step}:{partition}
+            Tags tags = Tags.of(
+                    "job", stepExecution.getJobExecution().getJobInstance().getJobName(),
+                    "step", separator < 0 ? stepName : stepName.substring(0, separator),
+                    "partition", separator < 0 ? "none" : stepName.substring(separator + 1));
+
+            this.read = timer("batch.chunk.read", tags);
+            this.process = timer("batch.chunk.process", tags);
+            this.write = timer("batch.chunk.write", tags);
+            this.commit = timer("batch.chunk.commit", tags);
+            this.duration = timer("batch.chunk.duration", tags);
+            this.itemRead = timer("batch.item.read", tags);
+            this.itemProcess = timer("batch.item.process", tags);
+            this.throughput = DistributionSummary.builder("batch.chunk.throughput")
+                    .baseUnit("items/s")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String name, Tags tags) {
+            return Timer.builder(name)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofMinutes(10))
+                    .register(meterRegistry);
+        }
+    }
+}
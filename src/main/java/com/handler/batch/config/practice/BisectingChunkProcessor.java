@@ -0,0 +1,61 @@
+package com.handler.batch.config.practice;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.List;
+
+/**
+ * BisectingItemWriter가 찾아낸 불량 item을 skip policy로 판단해 chunk의 StepContribution에 write skip으로 반영한다.
+ * skip count는 chunk가 commit 될 때만 StepExecution에 반영되고, skip limit을 넘으면 예외를 던져 chunk 전체를 rollback 한다.
+ * SkipListener.onSkipInWrite는 chunk의 쓰기가 모두 끝난 뒤 호출된다. (registerListener로 등록)
+ */
+public class BisectingChunkProcessor<I, O> extends SimpleChunkProcessor<I, O> {
+
+    private final BisectingItemWriter<O> bisectingItemWriter;
+    private final SkipPolicy skipPolicy;
+
+    /**
+     * @param itemWriter chunk writer. bisectingItemWriter 이거나 bisectingItemWriter를 감싼 writer (ValidatingItemWriter 등)
+     */
+    public BisectingChunkProcessor(ItemProcessor<? super I, ? extends O> itemProcessor,
+                                   ItemWriter<? super O> itemWriter,
+                                   BisectingItemWriter<O> bisectingItemWriter,
+                                   SkipPolicy skipPolicy) {
+        super(itemProcessor, itemWriter);
+        this.bisectingItemWriter = bisectingItemWriter;
+        this.skipPolicy = skipPolicy;
+    }
+
+    @Override
+    protected void write(StepContribution contribution, Chunk<I> inputs, Chunk<O> outputs) throws Exception {
+        List<BisectingItemWriter.WriteFailure<O>> failures;
+
+        try {
+            doWrite(outputs.getItems());
+        } catch (Exception e) {
+            inputs.clear();
+            throw e;
+        } finally {
+            failures = bisectingItemWriter.drainFailures();
+        }
+
+        for (BisectingItemWriter.WriteFailure<O> failure : failures) {
+            // skip 할 수 없거나 limit을 넘으면 예외 -> chunk rollback
+            if (!skipPolicy.shouldSkip(failure.getException(), contribution.getStepSkipCount())) {
+                throw failure.getException();
+            }
+            contribution.incrementWriteSkipCount();
+        }
+
+        contribution.incrementWriteCount(outputs.size() - failures.size());
+
+        for (BisectingItemWriter.WriteFailure<O> failure : failures) {
+            getListener().onSkipInWrite(failure.getItem(), failure.getException());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.handler.batch.config.practice;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * chunk 쓰기가 실패하면 chunk를 반으로 나눠 다시 쓰는 방식으로 불량 item을 찾는다.
+ * 기본 fault tolerant scan은 item 1건마다 트랜잭션을 열기 때문에 최대 chunk size 만큼의 트랜잭션이 필요하지만,
+ * 이분 탐색을 하면 불량 item 1건을 O(log n)번의 쓰기 시도로 찾는다.
+ *
+ * 모든 시도는 step의 chunk 트랜잭션 안에서 JDBC savepoint 단위로 실행되고, 실패한 시도만 savepoint로 되돌린다.
+ * 따라서 chunk가 rollback 되면 정상 sub-chunk도 같이 rollback 되고, 재시작 시 중복 insert가 생기지 않는다.
+ * JPA는 flush 실패 시 트랜잭션 전체를 rollback-only로 만들기 때문에 delegate는 JDBC writer여야 한다. (JdbcPersonItemWriter)
+ *
+ * 찾아낸 불량 item은 skip 하지 않고 모아두기만 한다. skip 여부 / skip count / SkipListener는 BisectingChunkProcessor가 처리한다.
+ */
+@Slf4j
+public class BisectingItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+    private final DataSource dataSource;
+    private final ThreadLocal<List<WriteFailure<T>>> failures = ThreadLocal.withInitial(ArrayList::new);
+
+    public BisectingItemWriter(ItemWriter<T> delegate, DataSource dataSource) {
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (items.isEmpty()) return;
+
+        Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+                "BisectingItemWriter must run inside the chunk transaction");
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+
+        try {
+            List<T> chunk = new ArrayList<>(items);
+
+            try {
+                writeInSavepoint(connection, chunk);
+            } catch (Exception e) {
+                log.info("chunk write failed, bisecting {} items : {}", chunk.size(), e.getMessage());
+                bisect(connection, chunk, e);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * 현재 thread에서 찾아낸 불량 item을 꺼내고 비운다.
+     */
+    public List<WriteFailure<T>> drainFailures() {
+        List<WriteFailure<T>> drained = failures.get();
+        failures.remove();
+        return drained;
+    }
+
+    private void bisect(Connection connection, List<T> items, Exception cause) throws Exception {
+        if (items.size() == 1) {
+            failures.get().add(new WriteFailure<>(items.get(0), cause));
+            return;
+        }
+
+        int middle = items.size() / 2;
+
+        // 앞쪽부터 순서대로 처리해야 insert 순서가 입력 순서와 같다.
+        writeOrBisect(connection, items.subList(0, middle));
+        writeOrBisect(connection, items.subList(middle, items.size()));
+    }
+
+    private void writeOrBisect(Connection connection, List<T> items) throws Exception {
+        try {
+            writeInSavepoint(connection, items);
+        } catch (Exception e) {
+            bisect(connection, items, e);
+        }
+    }
+
+    private void writeInSavepoint(Connection connection, List<T> items) throws Exception {
+        Savepoint savepoint = connection.setSavepoint();
+
+        try {
+            delegate.write(items);
+        } catch (Exception e) {
+            connection.rollback(savepoint);
+            throw e;
+        }
+
+        connection.releaseSavepoint(savepoint);
+    }
+
+    @Getter
+    public static class WriteFailure<T> {
+        private final T item;
+        private final Exception exception;
+
+        private WriteFailure(T item, Exception exception) {
+            this.item = item;
+            this.exception = exception;
+        }
+    }
+}
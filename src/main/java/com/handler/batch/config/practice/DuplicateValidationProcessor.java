@@ -3,19 +3,28 @@ package com.handler.batch.config.practice;
 
 import org.springframework.batch.item.ItemProcessor;
 
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * 이미 나온 key의 item은 걸러낸다. (null 반환 -> filter)
+ * keyPool을 넘기면 여러 processor(partition)가 같은 key 집합을 함께 쓴다.
+ */
 public class DuplicateValidationProcessor<T> implements ItemProcessor<T, T> {
 
-    private final Map<String, Object> keyPool = new ConcurrentHashMap<>();
+    private final Set<String> keyPool;
     private final Function<T, String> ketExtractor;
     private final boolean allowDuplicate;
 
     public DuplicateValidationProcessor(Function<T, String> ketExtractor, boolean allowDuplicate) {
+        this(ketExtractor, allowDuplicate, ConcurrentHashMap.newKeySet());
+    }
+
+    public DuplicateValidationProcessor(Function<T, String> ketExtractor, boolean allowDuplicate, Set<String> keyPool) {
         this.ketExtractor = ketExtractor;
         this.allowDuplicate = allowDuplicate;
+        this.keyPool = keyPool;
     }
 
     @Override
@@ -24,11 +33,11 @@ public class DuplicateValidationProcessor<T> implements ItemProcessor<T, T> {
 
         String key = ketExtractor.apply(item);
 
-        if(keyPool.containsKey(key)) {
+        // 중복 key는 읽기만으로 걸러낸다. 새 key는 add 한 번으로 확인과 등록을 같이 한다. (partition thread 끼리 경합)
+        if(keyPool.contains(key) || !keyPool.add(key)) {
             return null;
         }
 
-        keyPool.put(key, key);
         return item;
     }
 }
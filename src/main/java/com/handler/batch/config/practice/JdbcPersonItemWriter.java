@@ -0,0 +1,48 @@
+package com.handler.batch.config.practice;
+
+import com.handler.batch.dao.Person;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Person을 JDBC batch insert 한다. id는 Person entity와 같은 @TableGenerator(id_generator, pooled)에서 받는다.
+ * JPA insert와 섞여도 id가 겹치지 않고, 실패해도 영속성 컨텍스트 / 트랜잭션 상태에 영향이 없어 savepoint rollback이 가능하다.
+ */
+public class JdbcPersonItemWriter implements ItemWriter<Person> {
+
+    private static final String INSERT = "insert into person (id, name, age, address) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public JdbcPersonItemWriter(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+    }
+
+    @Override
+    public void write(List<? extends Person> people) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        IdentifierGenerator idGenerator = session.getFactory().getMetamodel()
+                .entityPersister(Person.class)
+                .getIdentifierGenerator();
+
+        List<Object[]> rows = new ArrayList<>(people.size());
+
+        for (Person person : people) {
+            Number id = (Number) idGenerator.generate(session, person);
+            rows.add(new Object[] {id, person.getName(), person.getAge(), person.getAddress()});
+        }
+
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+}
@@ -1,4 +0,0 @@
-package com.handler.batch.config.practice;
-
-public class NotFoundNameException extends RuntimeException {
-}
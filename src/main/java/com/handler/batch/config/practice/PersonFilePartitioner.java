@@ -0,0 +1,127 @@
+package com.handler.batch.config.practice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 파일 1개당 partition 1개를 만든다.
+ * splitLines가 0보다 크면 큰 파일은 splitLines 건씩 잘라 여러 partition으로 나눈다. (header 제외 item 기준)
+ * 잘린 partition은 시작 line의 byte offset을 함께 넘겨 reader가 앞부분을 읽지 않고 바로 이동하게 한다.
+ *
+ * partition0_0 : file0, item 0 ~ 99,999
+ * partition0_1 : file0, item 100,000 ~ 199,999
+ * partition1_0 : file1, 전체
+ */
+@Slf4j
+public class PersonFilePartitioner implements Partitioner {
+
+    public static final String FILE_NAME = "fileName";
+    public static final String START_ITEM = "startItem";
+    public static final String END_ITEM = "endItem";
+    public static final String START_OFFSET = "startOffset";
+    public static final String START_LINE = "startLine";
+    public static final String PARTITION_NAME = "partitionName";
+
+    private final Resource[] resources;
+    private final int splitLines;
+
+    public PersonFilePartitioner(Resource[] resources, int splitLines) {
+        this.resources = resources;
+        this.splitLines = splitLines;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> result = new HashMap<>();
+
+        for (int i = 0; i < resources.length; i++) {
+            Resource resource = resources[i];
+
+            if (splitLines <= 0) {
+                result.put("partition" + i + "_0", context(resource, "partition" + i + "_0", 0, Integer.MAX_VALUE));
+                continue;
+            }
+
+            List<Long> offsets = new ArrayList<>();
+            int itemCount = scan(resource, offsets);
+
+            for (int number = 0; number < offsets.size(); number++) {
+                int start = number * splitLines;
+                String partitionName = "partition" + i + "_" + number;
+
+                ExecutionContext value = context(resource, partitionName, start, Math.min(start + splitLines, itemCount));
+                value.putLong(START_OFFSET, offsets.get(number));
+                value.putInt(START_LINE, start + 1); // header
+
+                result.put(partitionName, value);
+            }
+        }
+
+        log.info("{} files -> {} partitions", resources.length, result.size());
+        return result;
+    }
+
+    private ExecutionContext context(Resource resource, String partitionName, int startItem, int endItem) {
+        ExecutionContext value = new ExecutionContext();
+
+        value.putString(FILE_NAME, url(resource));
+        value.putInt(START_ITEM, startItem);
+        value.putInt(END_ITEM, endItem);
+        value.putString(PARTITION_NAME, partitionName);
+
+        return value;
+    }
+
+    private String url(Resource resource) {
+        try {
+            return resource.getURL().toExternalForm();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * header를 제외한 item 수를 세고, splitLines 건마다 시작 byte offset을 offsets에 담는다.
+     */
+    private int scan(Resource resource, List<Long> offsets) {
+        try (InputStream inputStream = new BufferedInputStream(resource.getInputStream(), 64 * 1024)) {
+            long offset = 0;
+            int lines = 0;
+            boolean lineStart = true;
+            int b;
+
+            while ((b = inputStream.read()) != -1) {
+                if (lineStart && lines >= 1 && (lines - 1) % splitLines == 0) {
+                    offsets.add(offset);
+                }
+
+                lineStart = b == '\n';
+                if (lineStart) {
+                    lines++;
+                }
+                offset++;
+            }
+
+            int itemCount = Math.max(lineStart ? lines - 1 : lines, 0); // header, 마지막 줄 개행 유무
+
+            if (offsets.isEmpty()) {
+                offsets.add(offset);
+            }
+
+            return itemCount;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
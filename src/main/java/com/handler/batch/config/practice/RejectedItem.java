@@ -0,0 +1,18 @@
+package com.handler.batch.config.practice;
+
+import lombok.Getter;
+
+/**
+ * 검증에 실패한 item과 실패 사유 코드(ex. name.NotBlank|age.Pattern)
+ */
+@Getter
+public class RejectedItem<T> {
+
+    private final T item;
+    private final String reason;
+
+    public RejectedItem(T item, String reason) {
+        this.item = item;
+        this.reason = reason;
+    }
+}
@@ -1,111 +1,338 @@
 package com.handler.batch.config.practice;
 
 
+import com.handler.batch.config.executor.TaskExecutorConfiguration;
+import com.handler.batch.config.reader.OffsetFlatFileItemReader;
 import com.handler.batch.dao.Person;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
+import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
+import org.springframework.batch.core.step.item.SimpleChunkProvider;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
 
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.JpaItemWriter;
-import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.file.builder.MultiResourceItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
 
-import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.batch.item.support.CompositeItemWriter;
-import org.springframework.batch.item.support.builder.CompositeItemProcessorBuilder;
 import org.springframework.batch.item.support.builder.CompositeItemWriterBuilder;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
 public class SavePersonConfiguration {
 
+    private static final String DEFAULT_REJECT_PATH = "output/person_reject.csv";
+    private static final String DEFAULT_REDRIVE_REJECT_PATH = "output/person_redrive_reject.csv";
+    private final int CHUNK = 10;
+
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final EntityManagerFactory entityManager;
+    private final DataSource dataSource;
+    private final Validator validator;
+    @Qualifier(TaskExecutorConfiguration.PARTITION)
+    private final TaskExecutor partitionTaskExecutor;
 
+    // job 실행 별 이름 집합. partition(파일)이 달라도 같은 job 실행 안에서는 중복을 거른다.
+    private final Map<Long, Set<String>> personNames = new ConcurrentHashMap<>();
 
     @Bean
     public Job savePersonJob() throws Exception {
         return this.jobBuilderFactory.get("savePersonJob")
                 .incrementer(new RunIdIncrementer())
-                .start(this.savePersonStep(null))
+                .start(this.savePersonManagerStep(null, null))
                 .listener(new SavePersonListener.SavePersonJobExecutionListener())
                 .listener(new SavePersonListener.SavePersonAnnotationJobExecutionListener())
+                .listener(new JobExecutionListenerSupport() {
+                    @Override
+                    public void afterJob(JobExecution jobExecution) {
+                        personNames.remove(jobExecution.getId());
+                    }
+                })
                 .build();
     }
 
+    /**
+     * input 경로(파일, 디렉토리, glob)의 파일마다 partition을 만들어 동시에 적재한다.
+     * partition 별로 StepExecution이 따로 남기 때문에 재시작 시 완료된 파일은 다시 읽지 않는다.
+     */
     @Bean
     @JobScope
-    public Step savePersonStep(@Value("#{jobParameters[allow_duplicate]}") String allowDuplicate) throws Exception {
+    public Step savePersonManagerStep(@Value("#{jobParameters[input]}") String input,
+                                      @Value("#{jobParameters[split_lines]}") String splitLines) throws Exception {
+        return this.stepBuilderFactory.get("savePersonStep.manager")
+                .partitioner("savePersonStep", new PersonFilePartitioner(
+                        this.inputResources(input),
+                        StringUtils.hasText(splitLines) ? Integer.parseInt(splitLines) : 0))
+                .step(savePersonStep())
+                .partitionHandler(savePersonPartitionHandler())
+                .build();
+    }
+
+    @Bean
+    PartitionHandler savePersonPartitionHandler() throws Exception {
+        TaskExecutorPartitionHandler handler = new TaskExecutorPartitionHandler();
+
+        handler.setStep(savePersonStep());
+        handler.setTaskExecutor(this.partitionTaskExecutor);
+
+        return handler;
+    }
+
+    @Bean
+    public Step savePersonStep() throws Exception {
+        OffsetFlatFileItemReader<Person> itemReader = this.savePersonItemReader(null, null, null, null, null);
+        FlatFileItemWriter<RejectedItem<Person>> rejectItemWriter = this.savePersonRejectItemWriter(null, null);
+
         return this.stepBuilderFactory.get("savePersonStep")
-                .<Person, Person>chunk(10)
-                .reader(this.itemReader())
-                .processor(this.itemProcess(allowDuplicate))
-                .writer(this.itemWriter())
+                .tasklet(this.bisectingChunkTasklet(itemReader, this.savePersonItemProcessor(null, null), rejectItemWriter))
+                .stream(itemReader)
+                .stream(rejectItemWriter)
                 .listener(new SavePersonListener.SavePersonStepExecutionListener())
-                .faultTolerant()
-                .skip(NotFoundNameException.class)
-                .skipLimit(2)
                 .build();
     }
 
-    private ItemProcessor<? super Person,? extends Person> itemProcess(String allowDuplicate) throws Exception {
-        DuplicateValidationProcessor<Person> duplicateValidationProcessor =
-                new DuplicateValidationProcessor<>(Person::getName, Boolean.parseBoolean(allowDuplicate));
+    @Bean
+    @StepScope
+    public DuplicateValidationProcessor<Person> savePersonItemProcessor(@Value("#{jobParameters[allow_duplicate]}") String allowDuplicate,
+                                                                        @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        // 이름 검증은 ValidatingItemWriter에서 chunk 단위로 처리 (예외 -> rollback 발생하지 않음)
+        // partition 마다 processor가 따로 만들어지지만 이름 집합은 job 실행 안에서 함께 쓴다.
+        return new DuplicateValidationProcessor<>(Person::getName, Boolean.parseBoolean(allowDuplicate),
+                personNames.computeIfAbsent(jobExecutionId, id -> ConcurrentHashMap.newKeySet()));
+    }
 
-        ItemProcessor<Person, Person> validationProcessor = item -> {
-            if (item.isNotEmptyName()) {
-                return item;
-            }
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<RejectedItem<Person>> savePersonRejectItemWriter(@Value("#{jobParameters[reject_path]}") String rejectPath,
+                                                                              @Value("#{stepExecutionContext[partitionName]}") String partitionName) throws Exception {
+        // partition 끼리 같은 파일에 쓰지 않도록 partition 이름을 붙인다.
+        String path = Objects.isNull(rejectPath) ? DEFAULT_REJECT_PATH : rejectPath;
 
-            throw new NotFoundNameException();
-        };
+        return this.rejectItemWriter("savePersonRejectItemWriter", partitionRejectPath(path, partitionName));
+    }
 
-        CompositeItemProcessor<Person, Person> itemProcessor = new CompositeItemProcessorBuilder()
-                .delegates(new PersonValidationRetryProcessor(), validationProcessor, duplicateValidationProcessor)
-                .build();
+    /**
+     * output/person_reject.csv -> output/person_reject_partition0_0.csv (확장자가 없으면 끝에 붙인다)
+     */
+    static String partitionRejectPath(String rejectPath, String partitionName) {
+        String extension = StringUtils.getFilenameExtension(rejectPath);
 
-        itemProcessor.afterPropertiesSet();
+        return StringUtils.stripFilenameExtension(rejectPath) + "_" + partitionName
+                + (Objects.isNull(extension) ? "" : "." + extension);
+    }
 
-        return itemProcessor;
+    /**
+     * reject 파일을 수정한 뒤 다시 적재하는 job
+     */
+    @Bean
+    public Job redrivePersonJob() throws Exception {
+        return this.jobBuilderFactory.get("redrivePersonJob")
+                .incrementer(new RunIdIncrementer())
+                .start(this.redrivePersonStep(null, null))
+                .listener(new SavePersonListener.SavePersonJobExecutionListener())
+                .build();
     }
 
-    private ItemWriter<? super Person> itemWriter() throws Exception {
-//        return items -> items.forEach(x -> log.info("저는 {} 입니다.", x.getName()));
-        JpaItemWriter<Person> jpaItemWriter = new JpaItemWriterBuilder<Person>()
-                .entityManagerFactory(entityManager)
+    @Bean
+    @JobScope
+    public Step redrivePersonStep(@Value("#{jobParameters[input_path]}") String inputPath,
+                                  @Value("#{jobParameters[reject_path]}") String rejectPath) throws Exception {
+        // 다시 실패한 데이터는 별도 reject 파일에 남겨 원본 reject 파일을 덮어쓰지 않는다.
+        String redriveRejectPath = Objects.isNull(rejectPath) ? DEFAULT_REDRIVE_REJECT_PATH : rejectPath;
+
+        FlatFileItemWriter<RejectedItem<Person>> rejectItemWriter = this.rejectItemWriter("redrivePersonRejectItemWriter", redriveRejectPath);
+        MultiResourceItemReader<Person> itemReader = this.rejectItemReader(Objects.isNull(inputPath) ? DEFAULT_REJECT_PATH : inputPath, redriveRejectPath);
+
+        return this.stepBuilderFactory.get("redrivePersonStep")
+                .tasklet(this.bisectingChunkTasklet(itemReader, null, rejectItemWriter))
+                .stream(itemReader)
+                .stream(rejectItemWriter)
                 .build();
+    }
+
+    /**
+     * 검증 실패 item은 reject 파일로, DB 쓰기 실패는 chunk 트랜잭션 안에서 이분 탐색하여 불량 item만 write skip 한다.
+     */
+    private ChunkOrientedTasklet<Person> bisectingChunkTasklet(ItemReader<? extends Person> itemReader,
+                                                              ItemProcessor<Person, Person> itemProcessor,
+                                                              ItemWriter<RejectedItem<Person>> rejectItemWriter) {
+        RepeatTemplate repeatTemplate = new RepeatTemplate();
+        repeatTemplate.setCompletionPolicy(new SimpleCompletionPolicy(CHUNK));
+
+        BisectingItemWriter<Person> bisectingItemWriter = new BisectingItemWriter<>(this.itemWriter(), dataSource);
 
+        Map<Class<? extends Throwable>, Boolean> skippableExceptions = new HashMap<>();
+        skippableExceptions.put(DataIntegrityViolationException.class, true);
+
+        BisectingChunkProcessor<Person, Person> chunkProcessor = new BisectingChunkProcessor<>(
+                itemProcessor,
+                new ValidatingItemWriter<>(validator, bisectingItemWriter, rejectItemWriter, Person.Import.class),
+                bisectingItemWriter,
+                new LimitCheckingItemSkipPolicy(2, skippableExceptions));
+        chunkProcessor.registerListener(new SavePersonListener.SavePersonSkipListener());
+
+        return new ChunkOrientedTasklet<>(new SimpleChunkProvider<>(itemReader, repeatTemplate), chunkProcessor);
+    }
+
+    private ItemWriter<Person> itemWriter() {
+//        return items -> items.forEach(x -> log.info("저는 {} 입니다.", x.getName()));
         ItemWriter<Person> logItemWriter = items -> log.info("person.size : {}", items.size());
 
         // writer를 순차적으로 실행
+        // savepoint로 실패한 sub-chunk만 되돌리기 위해 JPA 대신 JDBC로 insert 한다.
         CompositeItemWriter<Person> compositeItemWriter = new CompositeItemWriterBuilder<Person>()
-                .delegates(jpaItemWriter, logItemWriter)
+                .delegates(new JdbcPersonItemWriter(dataSource, entityManager), logItemWriter)
                 .build();
-        compositeItemWriter.afterPropertiesSet();
 
         return compositeItemWriter;
     }
 
-    private ItemReader<? extends Person> itemReader() throws Exception {
+    private FlatFileItemWriter<RejectedItem<Person>> rejectItemWriter(String name, String rejectPath) throws Exception {
+        BeanWrapperFieldExtractor<RejectedItem<Person>> fieldExtractor = new BeanWrapperFieldExtractor<>();
+        fieldExtractor.setNames(new String[] {"item.name", "item.age", "item.address", "reason"});
+
+        DelimitedLineAggregator<RejectedItem<Person>> lineAggregator = new DelimitedLineAggregator<>();
+        lineAggregator.setDelimiter(",");
+        lineAggregator.setFieldExtractor(fieldExtractor);
+
+        FlatFileItemWriter<RejectedItem<Person>> rejectItemWriter = new FlatFileItemWriterBuilder<RejectedItem<Person>>()
+                .name(name)
+                .encoding("UTF-8")
+                .resource(new FileSystemResource(Objects.isNull(rejectPath) ? DEFAULT_REJECT_PATH : rejectPath))
+                .lineAggregator(lineAggregator)
+                .headerCallback(writer -> writer.write("이름,나이,거주지,reason"))
+                .shouldDeleteIfEmpty(true)
+                .build();
+
+        rejectItemWriter.afterPropertiesSet();
+
+        return rejectItemWriter;
+    }
+
+    /**
+     * savePersonJob의 reject_path를 넘기면 partition 별 reject 파일(reject_path + _partition*)을 모두 읽는다.
+     * 파일 경로나 glob을 직접 넘겨도 된다. 이번 redrive가 쓰는 reject 파일은 읽지 않는다.
+     */
+    private MultiResourceItemReader<Person> rejectItemReader(String input, String redriveRejectPath) throws Exception {
+        String inputPath = input.replaceFirst("^file:", "");
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Resource redriveReject = new FileSystemResource(redriveRejectPath);
+        Set<Resource> resources = new LinkedHashSet<>();
+
+        if (inputPath.contains("*")) {
+            resources.addAll(Arrays.asList(resolver.getResources("file:" + inputPath)));
+        } else {
+            resources.addAll(Arrays.asList(resolver.getResources("file:" + partitionRejectPath(inputPath, "partition*"))));
+            if (Files.exists(Paths.get(inputPath))) {
+                resources.add(new FileSystemResource(inputPath));
+            }
+        }
+        resources.removeIf(resource -> isSameFile(resource, redriveReject));
+
+        log.info("redrive reject files : {}", resources);
+
+        MultiResourceItemReader<Person> rejectItemReader = new MultiResourceItemReaderBuilder<Person>()
+                .name("redrivePersonItemReader")
+                .resources(resources.toArray(new Resource[0]))
+                .delegate(this.rejectFileItemReader())
+                .build();
+
+        return rejectItemReader;
+    }
+
+    private boolean isSameFile(Resource resource, Resource other) {
+        try {
+            return resource.getFile().getCanonicalFile().equals(other.getFile().getCanonicalFile());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private FlatFileItemReader<Person> rejectFileItemReader() throws Exception {
+        DefaultLineMapper<Person> lineMapper = new DefaultLineMapper<>();
+        DelimitedLineTokenizer lineTokenizer = new DelimitedLineTokenizer();
+
+        // reason 컬럼은 수정 시 지워도 되도록 strict 해제
+        lineTokenizer.setNames("name", "age", "address", "reason");
+        lineTokenizer.setStrict(false);
+        lineMapper.setLineTokenizer(lineTokenizer);
+        lineMapper.setFieldSetMapper(fieldSet -> new Person(
+                fieldSet.readString(0),
+                fieldSet.readString(1),
+                fieldSet.readString(2)
+        ));
+
+        FlatFileItemReader<Person> rejectItemReader = new FlatFileItemReaderBuilder<Person>()
+                .name("redrivePersonFileItemReader")
+                .encoding("UTF-8")
+                .linesToSkip(1)
+                .lineMapper(lineMapper)
+                .build();
+
+        rejectItemReader.afterPropertiesSet();
+
+        return rejectItemReader;
+    }
+
+    @Bean
+    @StepScope
+    public OffsetFlatFileItemReader<Person> savePersonItemReader(@Value("#{stepExecutionContext[fileName]}") String fileName,
+                                                                @Value("#{stepExecutionContext[startItem]}") Integer startItem,
+                                                                @Value("#{stepExecutionContext[endItem]}") Integer endItem,
+                                                                @Value("#{stepExecutionContext[startOffset]}") Long startOffset,
+                                                                @Value("#{stepExecutionContext[startLine]}") Integer startLine) throws Exception {
         DefaultLineMapper<Person> lineMapper = new DefaultLineMapper<>();
         DelimitedLineTokenizer lineTokenizer = new DelimitedLineTokenizer();
         
@@ -119,18 +346,43 @@ public class SavePersonConfiguration {
             );
         });
 
-        FlatFileItemReader<Person> savePersonItemReader = new FlatFileItemReaderBuilder<Person>()
-                .name("savePersonItemReader")
-                .encoding("UTF-8")
-                .linesToSkip(1)
-                .resource(new ClassPathResource("person.csv"))
-                .lineMapper(lineMapper)
-                .build();
+        // 재시작 시 저장된 byte offset으로 바로 이동 (line을 다시 읽어 버리지 않음)
+        OffsetFlatFileItemReader<Person> savePersonItemReader = new OffsetFlatFileItemReader<>(
+                "savePersonItemReader",
+                new UrlResource(fileName),
+                lineMapper,
+                StandardCharsets.UTF_8,
+                1);
+
+        savePersonItemReader.setCurrentItemCount(startItem);
+        savePersonItemReader.setMaxItemCount(endItem);
+
+        if (Objects.nonNull(startOffset)) {
+            savePersonItemReader.setStartOffset(startOffset, startLine);
+        }
 
         savePersonItemReader.afterPropertiesSet();
 
         return savePersonItemReader;
     }
 
+    private Resource[] inputResources(String input) throws IOException {
+        if (!StringUtils.hasText(input)) {
+            return new Resource[] {new ClassPathResource("person.csv")};
+        }
 
+        String pattern = input.contains(":") ? input : "file:" + input;
+
+        if (!pattern.contains("*") && Files.isDirectory(Paths.get(input.replaceFirst("^file:", "")))) {
+            pattern = pattern + "/*.csv";
+        }
+
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(pattern);
+
+        if (resources.length == 0) {
+            throw new IllegalArgumentException("input file not found : " + input);
+        }
+
+        return resources;
+    }
 }
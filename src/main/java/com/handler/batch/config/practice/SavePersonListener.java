@@ -1,9 +1,11 @@
 package com.handler.batch.config.practice;
 
+import com.handler.batch.dao.Person;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.annotation.AfterJob;
 import org.springframework.batch.core.annotation.AfterStep;
@@ -58,4 +60,22 @@ public class SavePersonListener {
         }
 
     }
+
+    public static class SavePersonSkipListener implements SkipListener<Person, Person> {
+
+        @Override
+        public void onSkipInRead(Throwable throwable) {
+            log.info("skipInRead : {}", throwable.getMessage());
+        }
+
+        @Override
+        public void onSkipInWrite(Person person, Throwable throwable) {
+            log.info("skipInWrite : {}, {}", person.getName(), throwable.getMessage());
+        }
+
+        @Override
+        public void onSkipInProcess(Person person, Throwable throwable) {
+            log.info("skipInProcess : {}, {}", person.getName(), throwable.getMessage());
+        }
+    }
 }
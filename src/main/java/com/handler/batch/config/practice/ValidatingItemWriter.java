@@ -0,0 +1,67 @@
+package com.handler.batch.config.practice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemWriter;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * chunk 단위로 Bean Validation 검사를 한 뒤, 정상 item은 delegate로, 불량 item은 사유 코드와 함께 reject writer로 보낸다.
+ * 예외를 던지지 않으므로 불량 데이터가 있어도 chunk rollback 및 skip scan이 발생하지 않는다.
+ */
+@Slf4j
+public class ValidatingItemWriter<T> implements ItemWriter<T> {
+
+    private final Validator validator;
+    private final Class<?>[] groups;
+    private final ItemWriter<? super T> delegate;
+    private final ItemWriter<? super RejectedItem<T>> rejectWriter;
+
+    public ValidatingItemWriter(Validator validator,
+                                ItemWriter<? super T> delegate,
+                                ItemWriter<? super RejectedItem<T>> rejectWriter,
+                                Class<?>... groups) {
+        this.validator = validator;
+        this.delegate = delegate;
+        this.rejectWriter = rejectWriter;
+        this.groups = groups;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        List<T> valid = new ArrayList<>(items.size());
+        List<RejectedItem<T>> rejected = new ArrayList<>();
+
+        for (T item : items) {
+            Set<ConstraintViolation<T>> violations = validator.validate(item, groups);
+
+            if (violations.isEmpty()) {
+                valid.add(item);
+                continue;
+            }
+
+            rejected.add(new RejectedItem<>(item, reasonCode(violations)));
+        }
+
+        if (!rejected.isEmpty()) {
+            log.info("rejected {} of {} items", rejected.size(), items.size());
+            rejectWriter.write(rejected);
+        }
+
+        if (!valid.isEmpty()) {
+            delegate.write(valid);
+        }
+    }
+
+    private String reasonCode(Set<ConstraintViolation<T>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + "." + v.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName())
+                .sorted()
+                .collect(Collectors.joining("|"));
+    }
+}
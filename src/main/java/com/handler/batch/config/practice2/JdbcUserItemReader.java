@@ -0,0 +1,171 @@
+package com.handler.batch.config.practice2;
+
+import com.handler.batch.config.practice3.Orders;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * user + orders를 join 한 cursor 하나로 읽어서 user id가 바뀔 때마다 User 1건을 만든다.
+ * JPA를 거치지 않으므로 1차 캐시, snapshot, dirty checking 이 없고 chunk가 끝나면 바로 GC 대상이 된다.
+ *
+ * 마지막으로 읽은 user id를 저장하고, 재시작 시 id > lastId 부터 다시 조회한다. (읽고 버리는 row 없음)
+ * MySQL은 fetchSize가 적용되도록 url에 useCursorFetch=true 가 필요하다.
+ */
+public class JdbcUserItemReader extends AbstractItemCountingItemStreamItemReader<User> {
+
+    private static final String LAST_ID = "lastId";
+    private static final String QUERY = "select u.id, u.username, u.level, u.updated_date, u.archived_amount, o.item_name, o.amount, o.created_date " +
+            "from user u left join orders o on o.user_id = u.id " +
+            "where u.id > ? and u.id <= ? order by u.id";
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+    private final long minId;
+    private final long maxId;
+
+    private JdbcCursorItemReader<Row> cursor;
+    private Row peeked;
+    private long lastId;
+    private String name;
+
+    public JdbcUserItemReader(DataSource dataSource, int fetchSize) {
+        this(dataSource, fetchSize, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * id가 [minId, maxId] 인 user만 읽는다. (UserLevelUpPartitioner 참고)
+     */
+    public JdbcUserItemReader(DataSource dataSource, int fetchSize, long minId, long maxId) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        this.minId = minId;
+        this.maxId = maxId;
+        setName(ClassUtils.getShortName(JdbcUserItemReader.class));
+    }
+
+    /**
+     * ItemStreamSupport는 name getter가 없으므로 cursor 이름에 쓰기 위해 따로 보관한다.
+     */
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        this.name = name;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        lastId = minId - 1;
+
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(LAST_ID))) {
+            lastId = executionContext.getLong(getExecutionContextKey(LAST_ID));
+        }
+
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(LAST_ID), lastId);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        cursor = new JdbcCursorItemReaderBuilder<Row>()
+                .name(name + "_cursor")
+                .dataSource(dataSource)
+                .sql(QUERY)
+                .queryArguments(lastId, maxId)
+                .fetchSize(fetchSize)
+                .rowMapper((resultSet, i) -> new Row(
+                        resultSet.getLong(1),
+                        resultSet.getString(2),
+                        Level.valueOf(resultSet.getString(3)),
+                        toLocalDate(resultSet.getDate(4)),
+                        resultSet.getLong(5),
+                        resultSet.getObject(7) == null ? null : Orders.builder()
+                                .itemName(resultSet.getString(6))
+                                .amount(resultSet.getInt(7))
+                                .createdDate(toLocalDate(resultSet.getDate(8)))
+                                .build()))
+                .saveState(false)
+                .build();
+
+        cursor.afterPropertiesSet();
+        cursor.open(new ExecutionContext());
+        peeked = null;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // lastId 이후부터 조회하므로 건너뛸 row가 없다.
+    }
+
+    @Override
+    protected User doRead() throws Exception {
+        Row first = peeked != null ? peeked : cursor.read();
+
+        if (first == null) {
+            return null;
+        }
+
+        List<Orders> orders = new ArrayList<>();
+        Row row = first;
+
+        // 같은 user의 주문 row를 모은다.
+        while (row != null && row.userId == first.userId) {
+            if (row.orders != null) {
+                orders.add(row.orders);
+            }
+            row = cursor.read();
+        }
+
+        peeked = row;
+        lastId = first.userId;
+
+        return User.of(first.userId, first.username, first.level, first.updatedDate, first.archivedAmount, orders);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (cursor != null) {
+            cursor.close();
+        }
+        peeked = null;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    private static class Row {
+        private final long userId;
+        private final String username;
+        private final Level level;
+        private final LocalDate updatedDate;
+        private final long archivedAmount;
+        private final Orders orders;
+
+        private Row(long userId, String username, Level level, LocalDate updatedDate, long archivedAmount, Orders orders) {
+            this.userId = userId;
+            this.username = username;
+            this.level = level;
+            this.updatedDate = updatedDate;
+            this.archivedAmount = archivedAmount;
+            this.orders = orders;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.handler.batch.config.practice2;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * 등급 상향 후 level, updated_date 컬럼만 JDBC batch update 한다.
+ * entity merge / flush 없이 chunk 당 update 1 batch. (+ level_history insert 1 batch)
+ * step 마다 만들어야 한다. (@StepScope bean, jobExecutionId는 level_history에 기록)
+ */
+public class JdbcUserLevelItemWriter implements ItemWriter<User> {
+
+    private static final String UPDATE = "update user set level = ?, updated_date = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LevelHistoryRecorder levelHistoryRecorder;
+    private final Long jobExecutionId;
+
+    public JdbcUserLevelItemWriter(DataSource dataSource, Long jobExecutionId) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.levelHistoryRecorder = new LevelHistoryRecorder(dataSource);
+        this.jobExecutionId = jobExecutionId;
+    }
+
+    @Override
+    public void write(List<? extends User> users) {
+        levelHistoryRecorder.levelUp(users, jobExecutionId);
+
+        jdbcTemplate.batchUpdate(UPDATE, users, users.size(), (preparedStatement, user) -> {
+            preparedStatement.setString(1, user.getLevel().name());
+            preparedStatement.setDate(2, Date.valueOf(user.getUpdatedDate()));
+            preparedStatement.setLong(3, user.getId());
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.handler.batch.config.practice2;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 등급 변경 이력. insert만 한다. (LevelHistoryRecorder가 JDBC batch로 쓴다)
+ * job 별 / 기간별 조회는 index로 처리하고 user 테이블은 읽지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "level_history", indexes = {
+        @Index(name = "idx_level_history_job", columnList = "job_execution_id"),
+        @Index(name = "idx_level_history_at", columnList = "at"),
+        @Index(name = "idx_level_history_user", columnList = "user_id, at")
+})
+public class LevelHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_level", nullable = false)
+    private Level fromLevel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_level", nullable = false)
+    private Level toLevel;
+
+    // remote chunking worker 처럼 step context가 없으면 null
+    @Column(name = "job_execution_id")
+    private Long jobExecutionId;
+
+    @Column(name = "at", nullable = false)
+    private LocalDateTime at;
+}
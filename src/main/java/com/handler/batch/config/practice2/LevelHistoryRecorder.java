@@ -0,0 +1,44 @@
+package com.handler.batch.config.practice2;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * user 등급을 올리고 바뀐 등급을 level_history에 JDBC batch insert 한다.
+ * writer의 chunk 트랜잭션에 참여하므로 user update가 rollback 되면 이력도 같이 rollback 된다.
+ * jobExecutionId는 호출하는 쪽이 넘긴다. (slice / remote worker thread에는 StepSynchronizationManager의 step context가 없다)
+ */
+public class LevelHistoryRecorder {
+
+    private static final String INSERT = "insert into level_history (user_id, from_level, to_level, job_execution_id, at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LevelHistoryRecorder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void levelUp(List<? extends User> users, Long jobExecutionId) {
+        Timestamp at = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>(users.size());
+
+        for (User user : users) {
+            Level fromLevel = user.getLevel();
+            Level toLevel = user.levelUp();
+
+            if (fromLevel != toLevel) {
+                rows.add(new Object[] {user.getId(), fromLevel.name(), toLevel.name(), jobExecutionId, at});
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+}
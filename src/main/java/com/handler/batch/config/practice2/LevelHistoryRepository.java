@@ -0,0 +1,7 @@
+package com.handler.batch.config.practice2;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LevelHistoryRepository extends JpaRepository<LevelHistory, Long> {
+    long countByJobExecutionId(Long jobExecutionId);
+}
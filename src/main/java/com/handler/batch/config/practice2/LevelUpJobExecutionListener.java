@@ -4,16 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 
-import java.time.LocalDate;
-import java.util.Collection;
-
 @Slf4j
 public class LevelUpJobExecutionListener implements JobExecutionListener {
 
-    private final UserRepository userRepository;
+    private final LevelHistoryRepository levelHistoryRepository;
 
-    public LevelUpJobExecutionListener(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public LevelUpJobExecutionListener(LevelHistoryRepository levelHistoryRepository) {
+        this.levelHistoryRepository = levelHistoryRepository;
     }
 
     @Override
@@ -23,13 +20,14 @@ public class LevelUpJobExecutionListener implements JobExecutionListener {
 
     @Override
     public void afterJob(JobExecution jobExecution) {
-        Collection<User> users = userRepository.findAllByUpdatedDate(LocalDate.now());
+        // 이번 실행에서 바뀐 등급 수 (level_history job_execution_id index)
+        long count = levelHistoryRepository.countByJobExecutionId(jobExecution.getId());
 
         // Job 수행시간
         long time = jobExecution.getEndTime().getTime() - jobExecution.getStartTime().getTime();
 
         log.info("회원 등급 업데이트 배치 프로그램");
         log.info("-------------------------------");
-        log.info("총 데이터 처리 {}건, 처리 시간 {}millis", users.size(), time);
+        log.info("총 데이터 처리 {}건, 처리 시간 {}millis", count, time);
     }
 }
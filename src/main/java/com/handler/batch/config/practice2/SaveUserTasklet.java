@@ -1,8 +1,8 @@
 package com.handler.batch.config.practice2;
 
 
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
 import com.handler.batch.config.practice3.Orders;
-import com.mysql.cj.xdevapi.Collection;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
@@ -18,23 +18,34 @@ public class SaveUserTasklet implements Tasklet {
     private final int size = 10000;
 
     private final UserRepository userRepository;
+    private final MonthlyOrdersTables monthlyOrdersTables;
 
-    public SaveUserTasklet(UserRepository userRepository) {
+    /**
+     * 저장한 주문을 created_date의 월 테이블(orders_yyyyMM)에도 쓴다. (월별 통계 reader용)
+     */
+    public SaveUserTasklet(UserRepository userRepository, MonthlyOrdersTables monthlyOrdersTables) {
         this.userRepository = userRepository;
+        this.monthlyOrdersTables = monthlyOrdersTables;
     }
 
     @Override
     public RepeatStatus execute(StepContribution stepContribution, ChunkContext chunkContext) throws Exception {
-        List<User> users = createUsers();
+        // job parameter userSize로 등급별 생성 건수 변경 가능 (0 이면 생성하지 않음 - 미리 적재한 데이터 사용)
+        // 커맨드라인(userSize=100)은 String, 코드에서 넘기면 Long 으로 들어오므로 문자열로 바꿔 읽는다.
+        Object userSize = chunkContext.getStepContext().getJobParameters().get("userSize");
+        int size = userSize == null ? this.size : Integer.parseInt(String.valueOf(userSize));
+
+        List<User> users = createUsers(size);
 
         Collections.shuffle(users);
 
         userRepository.saveAll(users);
+        monthlyOrdersTables.write(users); // id가 할당된 뒤 같은 트랜잭션에서 월 테이블로
 
         return RepeatStatus.FINISHED;
     }
 
-    private List<User> createUsers() {
+    private List<User> createUsers(int size) {
         List<User> users = new ArrayList<>();
 
         for (int i=0; i<size; i++) {
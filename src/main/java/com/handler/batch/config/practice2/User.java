@@ -4,18 +4,26 @@ import com.handler.batch.config.practice3.Orders;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
+import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 
 @Entity
 @Getter
 @NoArgsConstructor
-public class User {
+public class User implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = "id_generator", pkColumnValue = "user", allocationSize = 1000)
     private Long id;
 
     private String username;
@@ -23,26 +31,60 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Level level = Level.NORMAL;
 
+    // page 단위로 읽은 user들의 주문을 user_id in (...) 한 번으로 가져온다. (user 마다 select 하지 않음)
     @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
     @JoinColumn(name = "user_id")
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 1000)
     private List<Orders> orders;
 
     private LocalDate updatedDate;
 
+    // 보관 처리되어 orders에서 삭제된 주문의 금액 합계 (OrderArchiveTasklet). 등급 계산에 포함한다.
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long archivedAmount;
+
+    // orders를 읽지 않고 주문 금액 합계만 집계한 경우 (OrderScanUserItemReader)
+    @Transient
+    private Integer ordersAmount;
+
     @Builder
     public User(String username, List<Orders> orders) {
         this.username = username;
         this.orders = orders;
     }
 
+    /**
+     * 영속성 컨텍스트 없이 JDBC로 읽은 값으로 만든다. (JdbcUserItemReader)
+     */
+    public static User of(Long id, String username, Level level, LocalDate updatedDate, long archivedAmount, List<Orders> orders) {
+        User user = new User(username, orders);
+        user.id = id;
+        user.level = level;
+        user.updatedDate = updatedDate;
+        user.archivedAmount = archivedAmount;
+        return user;
+    }
+
+    /**
+     * 주문 목록 대신 미리 집계한 주문 금액 합계로 만든다. 등급 계산만 하고 orders는 비어 있다.
+     */
+    public static User ofTotalAmount(Long id, String username, Level level, LocalDate updatedDate, long archivedAmount, int ordersAmount) {
+        User user = of(id, username, level, updatedDate, archivedAmount, Collections.emptyList());
+        user.ordersAmount = ordersAmount;
+        return user;
+    }
+
     public boolean availableLevelUp() {
         return Level.availableLevelUp(this.getLevel(), this.getTotalAmount());
     }
 
-    private int getTotalAmount() {
-        return orders.stream()
-                .mapToInt(Orders::getAmount)
-                .sum();
+    int getTotalAmount() {
+        long ordersTotal = ordersAmount != null
+                ? ordersAmount
+                : orders.stream().mapToLong(Orders::getAmount).sum();
+
+        return (int) Math.min(archivedAmount + ordersTotal, Integer.MAX_VALUE);
     }
 
     public Level levelUp() {
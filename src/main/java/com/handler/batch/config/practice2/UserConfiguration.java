@@ -1,8 +1,11 @@
 package com.handler.batch.config.practice2;
 
+import com.handler.batch.config.datasource.DataSourceConfiguration;
 import com.handler.batch.config.practice3.JobParametersDecide;
+import com.handler.batch.config.practice3.MonthlyOrdersTableTasklet;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
 import com.handler.batch.config.practice3.OrderStatistics;
-import com.handler.batch.config.practice3.Orders;
+import com.handler.batch.config.practice4.ReadAheadItemReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
@@ -10,25 +13,25 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcPagingItemReader;
-import org.springframework.batch.item.database.JpaPagingItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
-import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.time.LocalDate;
 import java.time.YearMonth;
@@ -47,8 +50,10 @@ public class UserConfiguration {
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final UserRepository userRepository;
-    private final EntityManagerFactory entityManagerFactory;
+    private final LevelHistoryRepository levelHistoryRepository;
     private final DataSource dataSource;
+    @Qualifier(DataSourceConfiguration.READ)
+    private final DataSource readDataSource;
 
     @Bean(JOB_NAME)
     public Job userJob() throws Exception {
@@ -56,10 +61,11 @@ public class UserConfiguration {
                 .incrementer(new RunIdIncrementer())
                 .start(this.saveUserStep())
                 .next(this.userLevelUpStep())
-                .listener(new LevelUpJobExecutionListener(userRepository))
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
                 .next(new JobParametersDecide("date"))
                 .on(JobParametersDecide.CONTINUE.getName())
-                .to(this.orderStatisticsStep(null, null))
+                .to(this.monthlyOrdersStep(null))
+                .next(this.orderStatisticsStep(null, null))
                 .build()
                 .build();
     }
@@ -67,17 +73,34 @@ public class UserConfiguration {
     @Bean(JOB_NAME+"_saveUserStep")
     public Step saveUserStep() {
         return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
-                .tasklet(new SaveUserTasklet(userRepository))
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
                 .build();
     }
 
     @Bean(JOB_NAME+"+userLevelUpStep")
     public Step userLevelUpStep() throws Exception {
+        // chunk N을 쓰는 동안 chunk N+1을 reader 전용 thread에서 미리 읽는다.
+        ReadAheadItemReader<User> itemReader = new ReadAheadItemReader<>(
+                itemReader(),
+                new SimpleAsyncTaskExecutor(JOB_NAME + "-reader-"),
+                CHUNK,
+                2);
+        itemReader.setName(JOB_NAME+"_readAheadItemReader");
+
         return stepBuilderFactory.get(JOB_NAME+"+userLevelUpStep")
                 .<User, User>chunk(CHUNK)
-                .reader(itemReader())
+                .reader(itemReader)
                 .processor(itemProcessor())
-                .writer(itemWriter())
+                .writer(itemWriter(null))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_monthlyOrdersStep")
+    @JobScope
+    public Step monthlyOrdersStep(@Value("#{jobParameters[date]}") String date) {
+        // 통계 reader가 읽을 월 테이블을 primary에 만들고 replica에 보일 때까지 기다린다. (주문은 saveUserStep이 월 테이블에도 쓴다)
+        return this.stepBuilderFactory.get(JOB_NAME+"_monthlyOrdersStep")
+                .tasklet(new MonthlyOrdersTableTasklet(dataSource, readDataSource, YearMonth.parse(date)))
                 .build();
     }
 
@@ -129,7 +152,7 @@ public class UserConfiguration {
         sortKey.put("created_date", Order.ASCENDING);
 
         JdbcPagingItemReader<OrderStatistics> itemReader = new JdbcPagingItemReaderBuilder<OrderStatistics>()
-                .dataSource(this.dataSource)
+                .dataSource(this.readDataSource) // 대량 조회는 replica
                 .rowMapper((resultSet, i) -> OrderStatistics.builder()
                         .amount(resultSet.getString(1))
                         .date(LocalDate.parse(resultSet.getString(2), DateTimeFormatter.ISO_DATE))
@@ -137,7 +160,7 @@ public class UserConfiguration {
                 .pageSize(CHUNK)
                 .name(JOB_NAME+"_orderStatisticsItemReader")
                 .selectClause("sum(amount), created_date")
-                .fromClause("orders")
+                .fromClause(MonthlyOrdersTables.tableName(yearMonth)) // 해당 월 테이블만 읽는다 (saveUserStep이 주문 저장 시 기록)
                 .whereClause("created_date > :startDate and created_date <= :endDate")
                 .groupClause("created_date")
                 .parameterValues(parameters)
@@ -150,16 +173,14 @@ public class UserConfiguration {
     }
 
 
-    private ItemWriter<? super User> itemWriter() {
-        return users -> {
-            users.forEach(x -> {
-                x.levelUp();
-                userRepository.save(x);
-            });
-        };
+    @Bean(JOB_NAME+"_userLevelItemWriter")
+    @StepScope
+    JdbcUserLevelItemWriter itemWriter(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        // level, updated_date만 JDBC batch update (entity merge / dirty checking 없음)
+        return new JdbcUserLevelItemWriter(dataSource, jobExecutionId);
     }
 
-    private ItemProcessor<? super User,? extends User> itemProcessor() {
+    private ItemProcessor<User, User> itemProcessor() {
         return user -> {
             if (user.availableLevelUp()) { // 등급 상향 대상 체크
                 return user;
@@ -169,15 +190,10 @@ public class UserConfiguration {
         };
     }
 
-    private ItemReader<? extends User> itemReader() throws Exception {
-        JpaPagingItemReader<User> itemReader = new JpaPagingItemReaderBuilder<User>()
-                .queryString("select u from User u")
-                .entityManagerFactory(entityManagerFactory)
-                .pageSize(CHUNK)
-                .name(JOB_NAME+"_userItemReader")
-                .build();
-
-        itemReader.afterPropertiesSet();
+    private JdbcUserItemReader itemReader() {
+        // JpaPagingItemReader는 page의 User / Orders를 모두 영속성 컨텍스트에 올리므로 JDBC cursor로 읽는다.
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, CHUNK);
+        itemReader.setName(JOB_NAME+"_userItemReader");
         return itemReader;
     }
 }
@@ -0,0 +1,86 @@
+package com.handler.batch.config.practice3;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 한 달 동안의 일별 주문 금액 합계. 일자별 long 합계 / int 건수 배열에 누적한다. (객체 생성 없음)
+ * orderStatisticsStep의 group by created_date 조회와 같은 범위(startDate < created_date <= endDate)만 센다.
+ */
+public class DailyOrderAmounts {
+
+    private final YearMonth yearMonth;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final long[] amounts = new long[32];
+    private final int[] counts = new int[32];
+
+    public DailyOrderAmounts(YearMonth yearMonth) {
+        this.yearMonth = yearMonth;
+        this.startDate = yearMonth.atDay(1);
+        this.endDate = yearMonth.atEndOfMonth();
+    }
+
+    public void add(LocalDate createdDate, int amount) {
+        if (createdDate == null || !createdDate.isAfter(startDate) || createdDate.isAfter(endDate)) {
+            return;
+        }
+
+        int day = createdDate.getDayOfMonth();
+        amounts[day] += amount;
+        counts[day]++;
+    }
+
+    /**
+     * 주문이 있는 날만 일자 순으로 반환한다.
+     */
+    public List<OrderStatistics> toOrderStatistics() {
+        List<OrderStatistics> result = new ArrayList<>();
+
+        for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
+            if (counts[day] > 0) {
+                result.add(OrderStatistics.builder()
+                        .amount(String.valueOf(amounts[day]))
+                        .date(yearMonth.atDay(day))
+                        .build());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * ExecutionContext 저장용. "일:합계:건수" 를 ',' 로 이어 붙인다.
+     */
+    public String serialize() {
+        StringJoiner joiner = new StringJoiner(",");
+
+        for (int day = 1; day < amounts.length; day++) {
+            if (counts[day] > 0) {
+                joiner.add(day + ":" + amounts[day] + ":" + counts[day]);
+            }
+        }
+
+        return joiner.toString();
+    }
+
+    public void restore(String value) {
+        Arrays.fill(amounts, 0);
+        Arrays.fill(counts, 0);
+
+        for (String entry : value.split(",")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            String[] fields = entry.split(":");
+            int day = Integer.parseInt(fields[0]);
+            amounts[day] = Long.parseLong(fields[1]);
+            counts[day] = Integer.parseInt(fields[2]);
+        }
+    }
+}
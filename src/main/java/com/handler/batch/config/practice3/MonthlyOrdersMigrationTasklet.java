@@ -0,0 +1,53 @@
+package com.handler.batch.config.practice3;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 월 테이블이 생기기 전에 저장된 주문을 orders -> orders_yyyyMM 으로 한 번 옮긴다. (monthlyOrdersMigrationJob)
+ * 새 주문은 저장할 때 월 테이블에 같이 쓰므로(SaveUserTasklet) 통계 job 마다 실행하지 않는다.
+ *
+ * - execute 1회(= 트랜잭션 1개)에 id 순으로 최대 batchSize 건의 key 범위 (lastId, upperId]를 각 주문의 월 테이블로 복사한다.
+ * - 이미 복사된 id는 건너뛰므로 다시 실행해도 중복되지 않는다. lastId는 step ExecutionContext에 저장해서 재시작 시 이어서 한다.
+ */
+@Slf4j
+public class MonthlyOrdersMigrationTasklet implements Tasklet {
+
+    private static final String LAST_ID = "monthlyOrders.lastId";
+    private static final String UPPER_ID = "select max(id) from (select id from orders where id > ? order by id limit ?) t";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyOrdersTables monthlyOrdersTables;
+    private final int batchSize;
+
+    public MonthlyOrdersMigrationTasklet(DataSource dataSource, int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.monthlyOrdersTables = new MonthlyOrdersTables(dataSource);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        ExecutionContext executionContext = contribution.getStepExecution().getExecutionContext();
+        long lastId = executionContext.getLong(LAST_ID, 0L);
+
+        Long upperId = jdbcTemplate.queryForObject(UPPER_ID, Long.class, lastId, batchSize);
+
+        if (upperId == null) {
+            log.info("월별 주문 테이블 복사 완료 : {}건", contribution.getStepExecution().getWriteCount());
+            return RepeatStatus.FINISHED;
+        }
+
+        contribution.incrementWriteCount(monthlyOrdersTables.copy(lastId, upperId));
+        executionContext.putLong(LAST_ID, upperId);
+
+        return RepeatStatus.CONTINUABLE;
+    }
+}
@@ -0,0 +1,70 @@
+package com.handler.batch.config.practice3;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.YearMonth;
+
+/**
+ * 통계 step 앞에서 yearMonth의 월 테이블을 준비한다. 주문은 저장할 때 월 테이블에 쓰므로 여기서 orders를 다시 읽지 않는다.
+ *
+ * - 월 테이블이 없으면 primary에 만든다. (주문이 없는 달도 통계 reader가 빈 테이블을 읽는다)
+ * - 통계 reader는 replica를 읽으므로 replica의 월 테이블 건수가 primary와 같아질 때까지 기다린다. (replica가 없으면 바로 끝)
+ */
+@Slf4j
+public class MonthlyOrdersTableTasklet implements Tasklet {
+
+    private static final String COUNT = "select count(*) from %s";
+    private static final long REPLICA_WAIT_MILLIS = 60_000;
+    private static final long REPLICA_POLL_MILLIS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final MonthlyOrdersTables monthlyOrdersTables;
+    private final YearMonth yearMonth;
+
+    public MonthlyOrdersTableTasklet(DataSource dataSource, DataSource readDataSource, YearMonth yearMonth) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readJdbcTemplate = dataSource == readDataSource ? null : new JdbcTemplate(readDataSource);
+        this.monthlyOrdersTables = new MonthlyOrdersTables(dataSource);
+        this.yearMonth = yearMonth;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        String tableName = monthlyOrdersTables.ensure(yearMonth);
+
+        if (readJdbcTemplate == null) {
+            return RepeatStatus.FINISHED;
+        }
+
+        String count = String.format(COUNT, tableName);
+        long expected = jdbcTemplate.queryForObject(count, Long.class);
+        long deadline = System.currentTimeMillis() + REPLICA_WAIT_MILLIS;
+
+        while (replicaCount(count) < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("replica has not caught up with " + tableName + " within " + REPLICA_WAIT_MILLIS + "ms");
+            }
+            Thread.sleep(REPLICA_POLL_MILLIS);
+        }
+
+        log.info("{} replica 확인 : {}건", tableName, expected);
+        return RepeatStatus.FINISHED;
+    }
+
+    private long replicaCount(String count) {
+        try {
+            return readJdbcTemplate.queryForObject(count, Long.class);
+        } catch (DataAccessException e) {
+            // 월 테이블 DDL이 아직 복제되지 않음
+            return -1;
+        }
+    }
+}
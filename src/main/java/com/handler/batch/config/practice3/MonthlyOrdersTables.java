@@ -0,0 +1,114 @@
+package com.handler.batch.config.practice3;
+
+import com.handler.batch.config.practice2.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 월별 주문 테이블 (orders_yyyyMM).
+ *
+ * User.orders 매핑과 등급 상향 reader는 orders 테이블을 그대로 사용하고, 주문을 저장할 때(SaveUserTasklet) created_date의 월 테이블에도 같이 쓴다.
+ * 월별 통계는 해당 월 테이블만 읽으므로 전체 이력 크기와 상관없이 그 달의 주문 수 만큼만 읽는다.
+ * orderArchiveJob은 orders에서 지우기 전에 월 테이블로 복사하므로, 지난 달 통계를 다시 만들 수 있다.
+ *
+ * 월 테이블이 생기기 전에 저장된 주문은 monthlyOrdersMigrationJob으로 한 번 옮긴다.
+ */
+public class MonthlyOrdersTables {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String INSERT = "insert into %s (id, user_id, item_name, amount, created_date) values (?, ?, ?, ?, ?)";
+    private static final String CREATE = "create table if not exists %s (" +
+            "id bigint primary key, " +
+            "user_id bigint, " +
+            "item_name varchar(255), " +
+            "amount int not null, " +
+            "created_date date not null)";
+    private static final String DATE_RANGE = "select min(created_date), max(created_date) from orders where id > ? and id <= ?";
+    private static final String COPY = "insert into %s (id, user_id, item_name, amount, created_date) " +
+            "select o.id, o.user_id, o.item_name, o.amount, o.created_date from orders o " +
+            "where o.id > ? and o.id <= ? and o.created_date between ? and ? " +
+            "and not exists (select 1 from %s m where m.id = o.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ddlTransactionTemplate;
+    private final Set<YearMonth> created = ConcurrentHashMap.newKeySet();
+
+    public MonthlyOrdersTables(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ddlTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.ddlTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static String tableName(YearMonth yearMonth) {
+        return "orders_" + yearMonth.format(SUFFIX);
+    }
+
+    /**
+     * 월 테이블이 없으면 만든다. (통계 reader는 주문이 없는 달도 빈 테이블을 읽는다)
+     * DDL은 진행 중인 트랜잭션을 commit 시키므로(MySQL, H2) 호출한 트랜잭션을 잠시 멈추고 별도 connection에서 실행한다.
+     */
+    public String ensure(YearMonth yearMonth) {
+        String tableName = tableName(yearMonth);
+
+        if (created.add(yearMonth)) {
+            ddlTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(String.format(CREATE, tableName)));
+        }
+
+        return tableName;
+    }
+
+    /**
+     * 저장된(id가 할당된) user의 주문을 created_date의 월 테이블로 나눠서 월마다 JDBC batch insert 한다.
+     * 호출한 트랜잭션에 참여하므로 orders 저장이 rollback 되면 같이 rollback 된다.
+     */
+    public void write(List<User> users) {
+        Map<YearMonth, List<Object[]>> rows = new TreeMap<>();
+
+        for (User user : users) {
+            for (Orders orders : user.getOrders()) {
+                rows.computeIfAbsent(YearMonth.from(orders.getCreatedDate()), key -> new ArrayList<>())
+                        .add(new Object[] {orders.getId(), user.getId(), orders.getItemName(), orders.getAmount(),
+                                Date.valueOf(orders.getCreatedDate())});
+            }
+        }
+
+        rows.forEach((yearMonth, values) -> jdbcTemplate.batchUpdate(String.format(INSERT, ensure(yearMonth)), values));
+    }
+
+    /**
+     * orders의 id 범위 (lastId, upperId] 주문을 각자의 월 테이블로 복사한다. 이미 있는 id는 건너뛰므로 다시 실행해도 중복되지 않는다.
+     * 호출한 트랜잭션에 참여한다. (orderArchiveJob은 같은 트랜잭션에서 복사 후 삭제)
+     */
+    public int copy(long lastId, long upperId) {
+        LocalDate[] dateRange = jdbcTemplate.queryForObject(DATE_RANGE, (resultSet, i) -> new LocalDate[] {
+                resultSet.getObject(1, LocalDate.class), resultSet.getObject(2, LocalDate.class)}, lastId, upperId);
+
+        if (dateRange == null || dateRange[0] == null) {
+            return 0;
+        }
+
+        int copied = 0;
+
+        for (YearMonth yearMonth = YearMonth.from(dateRange[0]); !yearMonth.isAfter(YearMonth.from(dateRange[1])); yearMonth = yearMonth.plusMonths(1)) {
+            String tableName = ensure(yearMonth);
+            copied += jdbcTemplate.update(String.format(COPY, tableName, tableName), lastId, upperId,
+                    Date.valueOf(yearMonth.atDay(1)), Date.valueOf(yearMonth.atEndOfMonth()));
+        }
+
+        return copied;
+    }
+}
@@ -8,15 +8,20 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.TableGenerator;
+import java.io.Serializable;
 import java.time.LocalDate;
 
 @Entity
 @Getter
 @NoArgsConstructor
-public class Orders {
+public class Orders implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_generator", pkColumnValue = "orders", allocationSize = 1000)
     private Long id;
 
     private String itemName;
@@ -0,0 +1,27 @@
+package com.handler.batch.config.practice3;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDate;
+
+/**
+ * 보관 기간이 지나 orders에서 옮겨진 주문. (OrderArchiveTasklet이 insert ... select 로만 쓴다)
+ * id는 orders.id를 그대로 사용한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+public class OrdersArchive {
+
+    @Id
+    private Long id;
+
+    private String itemName;
+    private int amount;
+    private LocalDate createdDate;
+    private Long userId;
+    private LocalDate archivedDate;
+}
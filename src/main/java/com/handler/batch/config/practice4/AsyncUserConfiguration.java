@@ -1,47 +1,56 @@
 package com.handler.batch.config.practice4;
 
+import com.handler.batch.config.chunk.AdaptiveChunkSizePolicy;
+import com.handler.batch.config.chunk.InnodbLockWaitProbe;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.executor.ConcurrencyTuner;
+import com.handler.batch.config.executor.TaskExecutorConfiguration;
+import com.handler.batch.config.practice2.JdbcUserItemReader;
+import com.handler.batch.config.practice2.JdbcUserLevelItemWriter;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
 import com.handler.batch.config.practice2.LevelUpJobExecutionListener;
 import com.handler.batch.config.practice2.SaveUserTasklet;
 import com.handler.batch.config.practice2.User;
 import com.handler.batch.config.practice2.UserRepository;
 import com.handler.batch.config.practice3.JobParametersDecide;
+import com.handler.batch.config.practice3.MonthlyOrdersTableTasklet;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
 import com.handler.batch.config.practice3.OrderStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.integration.async.AsyncItemProcessor;
-import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcPagingItemReader;
-import org.springframework.batch.item.database.JpaPagingItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.task.TaskExecutor;
 
-import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Future;
 
 @Configuration
 @Slf4j
@@ -50,13 +59,19 @@ public class AsyncUserConfiguration {
 
     private final String JOB_NAME = "asyncUserJob";
     private final int CHUNK = 1000;
+    private final int SLICE = 100;
 
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final UserRepository userRepository;
-    private final EntityManagerFactory entityManagerFactory;
+    private final LevelHistoryRepository levelHistoryRepository;
     private final DataSource dataSource;
-    private final TaskExecutor taskExecutor;
+    @Qualifier(DataSourceConfiguration.READ)
+    private final DataSource readDataSource;
+    private final JobExplorer jobExplorer;
+    private final ConcurrencyTuner concurrencyTuner;
+    @Qualifier(TaskExecutorConfiguration.ASYNC_ITEM)
+    private final TaskExecutor sliceTaskExecutor;
 
     @Bean(JOB_NAME)
     public Job userJob() throws Exception {
@@ -64,10 +79,11 @@ public class AsyncUserConfiguration {
                 .incrementer(new RunIdIncrementer())
                 .start(this.saveUserStep())
                 .next(this.userLevelUpStep())
-                .listener(new LevelUpJobExecutionListener(userRepository))
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
                 .next(new JobParametersDecide("date"))
                 .on(JobParametersDecide.CONTINUE.getName())
-                .to(this.orderStatisticsStep(null))
+                .to(this.monthlyOrdersStep(null))
+                .next(this.orderStatisticsStep(null))
                 .build()
                 .build();
     }
@@ -75,17 +91,34 @@ public class AsyncUserConfiguration {
     @Bean(JOB_NAME+"_saveUserStep")
     public Step saveUserStep() {
         return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
-                .tasklet(new SaveUserTasklet(userRepository))
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
                 .build();
     }
 
     @Bean(JOB_NAME+"+userLevelUpStep")
+    @JobScope // slice 동시 처리 수는 job 실행 시점의 plan으로 정한다.
     public Step userLevelUpStep() throws Exception {
-        return stepBuilderFactory.get(JOB_NAME+"+userLevelUpStep")
-                .<User, Future<User>>chunk(CHUNK)
-                .reader(itemReader())
+        JdbcUserItemReader itemReader = itemReader();
+        AdaptiveChunkSizePolicy chunkSizePolicy = chunkSizePolicy(0, 0, 0, false);
+
+        // chunk를 SLICE 건씩 나눠 slice 전용 pool에서 처리 (item 마다 Future를 만들지 않음)
+        return new SlicedStepBuilder<User, User>(stepBuilderFactory.get(JOB_NAME+"+userLevelUpStep"), sliceTaskExecutor, SLICE)
+                .maxConcurrency(concurrencyTuner.plan(JOB_NAME).getAsyncConcurrency())
+                .chunk(chunkSizePolicy)
+                .reader(itemReader)
                 .processor(itemProcessor())
-                .writer(itemWriter())
+                .writer(itemWriter(null))
+                .listener((ChunkListener) chunkSizePolicy)
+                .listener((StepExecutionListener) chunkSizePolicy)
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_monthlyOrdersStep")
+    @JobScope
+    public Step monthlyOrdersStep(@Value("#{jobParameters[date]}") String date) {
+        // 통계 reader가 읽을 월 테이블을 primary에 만들고 replica에 보일 때까지 기다린다. (주문은 saveUserStep이 월 테이블에도 쓴다)
+        return this.stepBuilderFactory.get(JOB_NAME+"_monthlyOrdersStep")
+                .tasklet(new MonthlyOrdersTableTasklet(dataSource, readDataSource, YearMonth.parse(date)))
                 .build();
     }
 
@@ -136,7 +169,7 @@ public class AsyncUserConfiguration {
         sortKey.put("created_date", Order.ASCENDING);
 
         JdbcPagingItemReader<OrderStatistics> itemReader = new JdbcPagingItemReaderBuilder<OrderStatistics>()
-                .dataSource(this.dataSource)
+                .dataSource(this.readDataSource) // 대량 조회는 replica
                 .rowMapper((resultSet, i) -> OrderStatistics.builder()
                         .amount(resultSet.getString(1))
                         .date(LocalDate.parse(resultSet.getString(2), DateTimeFormatter.ISO_DATE))
@@ -144,7 +177,7 @@ public class AsyncUserConfiguration {
                 .pageSize(CHUNK)
                 .name(JOB_NAME+"_orderStatisticsItemReader")
                 .selectClause("sum(amount), created_date")
-                .fromClause("orders")
+                .fromClause(MonthlyOrdersTables.tableName(yearMonth)) // 해당 월 테이블만 읽는다 (saveUserStep이 주문 저장 시 기록)
                 .whereClause("created_date > :startDate and created_date <= :endDate")
                 .groupClause("created_date")
                 .parameterValues(parameters)
@@ -157,45 +190,44 @@ public class AsyncUserConfiguration {
     }
 
 
-    private AsyncItemWriter<User> itemWriter() {
-        ItemWriter<User> itemWriter = users -> {
-            users.forEach(x -> {
-                x.levelUp();
-                userRepository.save(x);
-            });
-        };
+    /**
+     * 처리 시간 / heap / lock 대기에 따라 chunk 크기를 조정. (step 실행마다 새로 생성)
+     */
+    @Bean(JOB_NAME+"_chunkSizePolicy")
+    @StepScope
+    AdaptiveChunkSizePolicy chunkSizePolicy(@Value("${batch.chunk.target-millis:1000}") long targetMillis,
+                                            @Value("${batch.chunk.min-size:100}") int minSize,
+                                            @Value("${batch.chunk.max-size:5000}") int maxSize,
+                                            @Value("${batch.chunk.innodb-lock-wait:false}") boolean innodbLockWait) {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(targetMillis, CHUNK, minSize, maxSize, jobExplorer);
+
+        if (innodbLockWait) {
+            policy.setLockWaitMillis(new InnodbLockWaitProbe(dataSource));
+        }
 
-        AsyncItemWriter<User> asyncItemWriter = new AsyncItemWriter<>();
-        asyncItemWriter.setDelegate(itemWriter);
+        return policy;
+    }
 
-        return asyncItemWriter;
+    @Bean(JOB_NAME+"_userLevelItemWriter")
+    @StepScope
+    JdbcUserLevelItemWriter itemWriter(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        return new JdbcUserLevelItemWriter(dataSource, jobExecutionId); // 등급 상향 + level_history batch insert
     }
 
-    private AsyncItemProcessor<User, User> itemProcessor() {
-        ItemProcessor<User, User> itemProcessor = user -> {
+    private ItemProcessor<User, User> itemProcessor() {
+        return user -> {
             if (user.availableLevelUp()) { // 등급 상향 대상 체크
                 return user;
             }
 
             return null;
         };
-
-        AsyncItemProcessor<User, User> asyncItemProcessor = new AsyncItemProcessor<>();
-        asyncItemProcessor.setDelegate(itemProcessor);
-        asyncItemProcessor.setTaskExecutor(this.taskExecutor);
-
-        return asyncItemProcessor;
     }
 
-    private ItemReader<? extends User> itemReader() throws Exception {
-        JpaPagingItemReader<User> itemReader = new JpaPagingItemReaderBuilder<User>()
-                .queryString("select u from User u")
-                .entityManagerFactory(entityManagerFactory)
-                .pageSize(CHUNK)
-                .name(JOB_NAME+"_userItemReader")
-                .build();
-
-        itemReader.afterPropertiesSet();
+    private JdbcUserItemReader itemReader() {
+        // slice는 다른 thread에서 처리되므로 영속성 context에 묶이지 않은 User를 넘긴다.
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, CHUNK);
+        itemReader.setName(JOB_NAME+"_userItemReader");
         return itemReader;
     }
 }
@@ -0,0 +1,162 @@
+package com.handler.batch.config.practice4;
+
+import com.handler.batch.config.practice2.JdbcUserLevelItemWriter;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
+import com.handler.batch.config.practice2.LevelUpJobExecutionListener;
+import com.handler.batch.config.practice2.SaveUserTasklet;
+import com.handler.batch.config.practice2.User;
+import com.handler.batch.config.practice2.UserRepository;
+import com.handler.batch.config.practice3.DailyOrderAmounts;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
+import com.handler.batch.config.practice3.OrderStatistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * userLevelUpStep + orderStatisticsStep을 step 1개로 합친 job.
+ * orders를 user_id 순으로 한 번만 읽어서 user 별 합계로 등급을 올리고, 같은 scan에서 모은 일별 합계는 step이 끝나면 csv로 쓴다.
+ * (date 파라미터가 없으면 일별 합계는 집계하지 않는다)
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class FusedUserConfiguration {
+
+    private final String JOB_NAME = "fusedUserJob";
+    private final int CHUNK = 1000;
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final UserRepository userRepository;
+    private final LevelHistoryRepository levelHistoryRepository;
+    private final DataSource dataSource;
+
+    @Bean(JOB_NAME)
+    public Job userJob() throws Exception {
+        return this.jobBuilderFactory.get(JOB_NAME)
+                .incrementer(new RunIdIncrementer())
+                .start(this.saveUserStep())
+                .next(this.userLevelUpStep(null, null, null))
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_saveUserStep")
+    public Step saveUserStep() {
+        return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_userLevelUpStep")
+    @JobScope
+    public Step userLevelUpStep(@Value("#{jobParameters[date]}") String date,
+                                @Value("#{jobParameters[path]}") String path,
+                                @Value("#{jobExecution.id}") Long jobExecutionId) throws Exception {
+        DailyOrderAmounts dailyOrderAmounts = StringUtils.hasText(date) ? new DailyOrderAmounts(YearMonth.parse(date)) : null;
+
+        // 앞 step이 쓴 user를 읽어야 하므로 primary에서 읽는다.
+        OrderScanUserItemReader itemReader = new OrderScanUserItemReader(dataSource, CHUNK, dailyOrderAmounts);
+
+        return stepBuilderFactory.get(JOB_NAME+"_userLevelUpStep")
+                .<User, User>chunk(CHUNK)
+                .reader(itemReader)
+                .processor(itemProcessor())
+                .writer(new JdbcUserLevelItemWriter(dataSource, jobExecutionId))
+                .listener(orderStatisticsListener(date, path, dailyOrderAmounts))
+                .build();
+    }
+
+    /**
+     * step이 정상 종료되면 scan 중 모은 일별 합계를 한 번에 csv로 쓴다.
+     */
+    private StepExecutionListener orderStatisticsListener(String date, String path, DailyOrderAmounts dailyOrderAmounts) {
+        return new StepExecutionListener() {
+            @Override
+            public void beforeStep(StepExecution stepExecution) {
+
+            }
+
+            @Override
+            public ExitStatus afterStep(StepExecution stepExecution) {
+                if (dailyOrderAmounts == null || !ExitStatus.COMPLETED.equals(stepExecution.getExitStatus())) {
+                    return null;
+                }
+
+                try {
+                    List<OrderStatistics> orderStatistics = dailyOrderAmounts.toOrderStatistics();
+                    FlatFileItemWriter<OrderStatistics> itemWriter = orderStatisticsItemWriter(date, path);
+
+                    itemWriter.open(new ExecutionContext());
+                    itemWriter.write(orderStatistics);
+                    itemWriter.close();
+
+                    log.info("{} 일별 주문 금액 {}일", date, orderStatistics.size());
+                    return null;
+                } catch (Exception e) {
+                    log.error("일별 주문 금액 파일 생성 실패", e);
+                    stepExecution.addFailureException(e);
+                    return ExitStatus.FAILED;
+                }
+            }
+        };
+    }
+
+    private FlatFileItemWriter<OrderStatistics> orderStatisticsItemWriter(String date, String path) throws Exception {
+        YearMonth yearMonth = YearMonth.parse(date);
+
+        String fileName = yearMonth.getYear() + "년_"+yearMonth.getMonthValue() + "월_일별_주문_금액.csv";
+
+        BeanWrapperFieldExtractor<OrderStatistics> fieldExtractor = new BeanWrapperFieldExtractor<>();
+        fieldExtractor.setNames(new String[] {"amount", "date"});
+
+        DelimitedLineAggregator<OrderStatistics> lineAggregator = new DelimitedLineAggregator<>();
+        lineAggregator.setDelimiter(",");
+        lineAggregator.setFieldExtractor(fieldExtractor);
+
+        FlatFileItemWriter<OrderStatistics> itemWriter = new FlatFileItemWriterBuilder<OrderStatistics>()
+                .resource(new FileSystemResource(path + fileName))
+                .lineAggregator(lineAggregator)
+                .name(JOB_NAME+"_orderStatisticsItemWriter")
+                .encoding("UTF-8")
+                .headerCallback(writer -> writer.write("total_amount,date"))
+                .build();
+
+        itemWriter.afterPropertiesSet();
+        return itemWriter;
+    }
+
+    private ItemProcessor<User, User> itemProcessor() {
+        return user -> {
+            if (user.availableLevelUp()) { // 등급 상향 대상 체크
+                return user;
+            }
+
+            return null;
+        };
+    }
+}
@@ -1,10 +1,16 @@
 package com.handler.batch.config.practice4;
 
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.executor.ConcurrencyTuner;
+import com.handler.batch.config.practice2.LevelHistoryRecorder;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
 import com.handler.batch.config.practice2.LevelUpJobExecutionListener;
 import com.handler.batch.config.practice2.SaveUserTasklet;
 import com.handler.batch.config.practice2.User;
 import com.handler.batch.config.practice2.UserRepository;
 import com.handler.batch.config.practice3.JobParametersDecide;
+import com.handler.batch.config.practice3.MonthlyOrdersTableTasklet;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
 import com.handler.batch.config.practice3.OrderStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +19,7 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
@@ -26,6 +33,7 @@ import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -51,9 +59,13 @@ public class MultiThreadUserConfiguration {
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final UserRepository userRepository;
+    private final LevelHistoryRepository levelHistoryRepository;
     private final EntityManagerFactory entityManagerFactory;
     private final DataSource dataSource;
+    @Qualifier(DataSourceConfiguration.READ)
+    private final DataSource readDataSource;
     private final TaskExecutor taskExecutor;
+    private final ConcurrencyTuner concurrencyTuner;
 
     @Bean(JOB_NAME)
     public Job userJob() throws Exception {
@@ -61,10 +73,11 @@ public class MultiThreadUserConfiguration {
                 .incrementer(new RunIdIncrementer())
                 .start(this.saveUserStep())
                 .next(this.userLevelUpStep())
-                .listener(new LevelUpJobExecutionListener(userRepository))
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
                 .next(new JobParametersDecide("date"))
                 .on(JobParametersDecide.CONTINUE.getName())
-                .to(this.orderStatisticsStep(null))
+                .to(this.monthlyOrdersStep(null))
+                .next(this.orderStatisticsStep(null))
                 .build()
                 .build();
     }
@@ -72,19 +85,29 @@ public class MultiThreadUserConfiguration {
     @Bean(JOB_NAME+"_saveUserStep")
     public Step saveUserStep() {
         return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
-                .tasklet(new SaveUserTasklet(userRepository))
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
                 .build();
     }
 
     @Bean(JOB_NAME+"+userLevelUpStep")
+    @JobScope // throttleLimit은 job 실행 시점의 plan으로 정한다.
     public Step userLevelUpStep() throws Exception {
         return stepBuilderFactory.get(JOB_NAME+"+userLevelUpStep")
                 .<User, User>chunk(CHUNK)
                 .reader(itemReader())
                 .processor(itemProcessor())
-                .writer(itemWriter())
+                .writer(itemWriter(null))
                 .taskExecutor(this.taskExecutor)
-                .throttleLimit(8) // thread 개수 :: Default 4
+                .throttleLimit(concurrencyTuner.plan(JOB_NAME).getThrottleLimit()) // thread 개수 :: Default 4
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_monthlyOrdersStep")
+    @JobScope
+    public Step monthlyOrdersStep(@Value("#{jobParameters[date]}") String date) {
+        // 통계 reader가 읽을 월 테이블을 primary에 만들고 replica에 보일 때까지 기다린다. (주문은 saveUserStep이 월 테이블에도 쓴다)
+        return this.stepBuilderFactory.get(JOB_NAME+"_monthlyOrdersStep")
+                .tasklet(new MonthlyOrdersTableTasklet(dataSource, readDataSource, YearMonth.parse(date)))
                 .build();
     }
 
@@ -135,7 +158,7 @@ public class MultiThreadUserConfiguration {
         sortKey.put("created_date", Order.ASCENDING);
 
         JdbcPagingItemReader<OrderStatistics> itemReader = new JdbcPagingItemReaderBuilder<OrderStatistics>()
-                .dataSource(this.dataSource)
+                .dataSource(this.readDataSource) // 대량 조회는 replica
                 .rowMapper((resultSet, i) -> OrderStatistics.builder()
                         .amount(resultSet.getString(1))
                         .date(LocalDate.parse(resultSet.getString(2), DateTimeFormatter.ISO_DATE))
@@ -143,7 +166,7 @@ public class MultiThreadUserConfiguration {
                 .pageSize(CHUNK)
                 .name(JOB_NAME+"_orderStatisticsItemReader")
                 .selectClause("sum(amount), created_date")
-                .fromClause("orders")
+                .fromClause(MonthlyOrdersTables.tableName(yearMonth)) // 해당 월 테이블만 읽는다 (saveUserStep이 주문 저장 시 기록)
                 .whereClause("created_date > :startDate and created_date <= :endDate")
                 .groupClause("created_date")
                 .parameterValues(parameters)
@@ -156,12 +179,14 @@ public class MultiThreadUserConfiguration {
     }
 
 
-    private ItemWriter<? super User> itemWriter() {
+    @Bean(JOB_NAME+"_userLevelItemWriter")
+    @StepScope
+    ItemWriter<? super User> itemWriter(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        LevelHistoryRecorder levelHistoryRecorder = new LevelHistoryRecorder(dataSource);
+
         return users -> {
-            users.forEach(x -> {
-                x.levelUp();
-                userRepository.save(x);
-            });
+            levelHistoryRecorder.levelUp(users, jobExecutionId); // 등급 상향 + level_history batch insert
+            users.forEach(userRepository::save);
         };
     }
 
@@ -0,0 +1,175 @@
+package com.handler.batch.config.practice4;
+
+import com.handler.batch.config.practice2.Level;
+import com.handler.batch.config.practice2.User;
+import com.handler.batch.config.practice3.DailyOrderAmounts;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * orders를 user_id 순으로 한 번만 읽으면서 두 가지를 같이 집계한다.
+ * - user 별 주문 금액 합계 -> User 1건 (등급 상향 대상 판단용, orders 목록은 만들지 않음)
+ * - 일별 주문 금액 합계 -> DailyOrderAmounts (월별 통계 csv 용, dailyOrderAmounts가 null이면 집계하지 않음)
+ *
+ * userLevelUpStep + orderStatisticsStep 처럼 orders를 두 번 읽지 않는다.
+ * 주문이 모두 보관 처리된 user도 archived_amount로 등급을 계산해야 하므로 user 기준 left join 으로 읽는다.
+ * 마지막 user id와 그때까지의 일별 합계를 같이 저장하고, 재시작 시 user_id > lastId 부터 다시 조회한다.
+ */
+public class OrderScanUserItemReader extends AbstractItemCountingItemStreamItemReader<User> {
+
+    private static final String LAST_ID = "lastId";
+    private static final String DAILY_AMOUNTS = "dailyAmounts";
+    private static final String QUERY = "select u.id, o.amount, o.created_date, u.username, u.level, u.updated_date, u.archived_amount " +
+            "from user u left join orders o on o.user_id = u.id " +
+            "where u.id > ? order by u.id";
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+    private final DailyOrderAmounts dailyOrderAmounts;
+
+    private JdbcCursorItemReader<Row> cursor;
+    private Row peeked;
+    private long lastId;
+    private String name;
+
+    public OrderScanUserItemReader(DataSource dataSource, int fetchSize, DailyOrderAmounts dailyOrderAmounts) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        this.dailyOrderAmounts = dailyOrderAmounts;
+        setName(ClassUtils.getShortName(OrderScanUserItemReader.class));
+    }
+
+    /**
+     * ItemStreamSupport는 name getter가 없으므로 cursor 이름에 쓰기 위해 따로 보관한다.
+     */
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        this.name = name;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        lastId = 0;
+
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(LAST_ID))) {
+            lastId = executionContext.getLong(getExecutionContextKey(LAST_ID));
+
+            if (dailyOrderAmounts != null) {
+                dailyOrderAmounts.restore(executionContext.getString(getExecutionContextKey(DAILY_AMOUNTS), ""));
+            }
+        }
+
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(LAST_ID), lastId);
+
+            if (dailyOrderAmounts != null) {
+                executionContext.putString(getExecutionContextKey(DAILY_AMOUNTS), dailyOrderAmounts.serialize());
+            }
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        cursor = new JdbcCursorItemReaderBuilder<Row>()
+                .name(name + "_cursor")
+                .dataSource(dataSource)
+                .sql(QUERY)
+                .queryArguments(lastId)
+                .fetchSize(fetchSize)
+                .rowMapper((resultSet, i) -> new Row(
+                        resultSet.getLong(1),
+                        resultSet.getInt(2),
+                        toLocalDate(resultSet.getDate(3)),
+                        resultSet.getString(4),
+                        Level.valueOf(resultSet.getString(5)),
+                        toLocalDate(resultSet.getDate(6)),
+                        resultSet.getLong(7)))
+                .saveState(false)
+                .build();
+
+        cursor.afterPropertiesSet();
+        cursor.open(new ExecutionContext());
+        peeked = null;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // lastId 이후부터 조회하므로 건너뛸 row가 없다.
+    }
+
+    @Override
+    protected User doRead() throws Exception {
+        Row first = peeked != null ? peeked : cursor.read();
+
+        if (first == null) {
+            return null;
+        }
+
+        long totalAmount = 0;
+        Row row = first;
+
+        // 같은 user의 주문 row를 합산하면서 일별 합계에도 더한다. (주문 없는 user는 amount 0, created_date null 1 row)
+        while (row != null && row.userId == first.userId) {
+            totalAmount += row.amount;
+
+            if (dailyOrderAmounts != null) {
+                dailyOrderAmounts.add(row.createdDate, row.amount);
+            }
+            row = cursor.read();
+        }
+
+        peeked = row;
+        lastId = first.userId;
+
+        return User.ofTotalAmount(first.userId, first.username, first.level, first.updatedDate, first.archivedAmount,
+                (int) Math.min(totalAmount, Integer.MAX_VALUE));
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (cursor != null) {
+            cursor.close();
+        }
+        peeked = null;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    private static class Row {
+        private final long userId;
+        private final int amount;
+        private final LocalDate createdDate;
+        private final String username;
+        private final Level level;
+        private final LocalDate updatedDate;
+        private final long archivedAmount;
+
+        private Row(long userId, int amount, LocalDate createdDate, String username, Level level, LocalDate updatedDate, long archivedAmount) {
+            this.userId = userId;
+            this.amount = amount;
+            this.createdDate = createdDate;
+            this.username = username;
+            this.level = level;
+            this.updatedDate = updatedDate;
+            this.archivedAmount = archivedAmount;
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.handler.batch.config.practice4;
 
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.executor.ConcurrencyTuner;
+import com.handler.batch.config.executor.TaskExecutorConfiguration;
+import com.handler.batch.config.practice2.JdbcUserItemReader;
+import com.handler.batch.config.practice2.JdbcUserLevelItemWriter;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
 import com.handler.batch.config.practice2.LevelUpJobExecutionListener;
 import com.handler.batch.config.practice2.SaveUserTasklet;
 import com.handler.batch.config.practice2.User;
 import com.handler.batch.config.practice2.UserRepository;
 import com.handler.batch.config.practice3.JobParametersDecide;
+import com.handler.batch.config.practice3.MonthlyOrdersTableTasklet;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
 import com.handler.batch.config.practice3.OrderStatistics;
+import com.handler.batch.config.restart.RestartableRunIdIncrementer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
@@ -14,10 +23,10 @@ import org.springframework.batch.core.configuration.annotation.JobBuilderFactory
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.job.flow.support.SimpleFlow;
-import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.step.tasklet.TaskletStep;
@@ -25,21 +34,19 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcPagingItemReader;
-import org.springframework.batch.item.database.JpaPagingItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.task.TaskExecutor;
 
-import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.time.LocalDate;
 import java.time.YearMonth;
@@ -58,16 +65,23 @@ public class ParallelUserConfiguration {
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final UserRepository userRepository;
-    private final EntityManagerFactory entityManagerFactory;
+    private final LevelHistoryRepository levelHistoryRepository;
     private final DataSource dataSource;
-    private final TaskExecutor taskExecutor;
+    @Qualifier(DataSourceConfiguration.READ)
+    private final DataSource readDataSource;
+    @Qualifier(TaskExecutorConfiguration.FLOW_SPLIT)
+    private final TaskExecutor flowSplitTaskExecutor;
+    @Qualifier(TaskExecutorConfiguration.PARTITION)
+    private final TaskExecutor partitionTaskExecutor;
+    private final ConcurrencyTuner concurrencyTuner;
+    private final JobExplorer jobExplorer;
 
 
     @Bean(JOB_NAME)
     public Job userJob() throws Exception {
         return this.jobBuilderFactory.get(JOB_NAME)
-                .incrementer(new RunIdIncrementer())
-                .listener(new LevelUpJobExecutionListener(userRepository))
+                .incrementer(new RestartableRunIdIncrementer(jobExplorer, JOB_NAME)) // 실패한 instance가 있으면 이어서 실행
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
                 .start(this.saveUserFlow())
                 .next(this.splitFlow(null))
                 .build()
@@ -77,7 +91,7 @@ public class ParallelUserConfiguration {
     @Bean(JOB_NAME+"_saveUserFLow")
     public Flow saveUserFlow() {
         TaskletStep saveUserStep = this.stepBuilderFactory.get(JOB_NAME + "_saveUserStep")
-                .tasklet(new SaveUserTasklet(userRepository))
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
                 .build();
 
         return new FlowBuilder<SimpleFlow>(JOB_NAME+"_saveUserFLow")
@@ -88,7 +102,7 @@ public class ParallelUserConfiguration {
     @Bean(JOB_NAME+"_saveUserStep")
     public Step saveUserStep() {
         return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
-                .tasklet(new SaveUserTasklet(userRepository))
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
                 .build();
     }
 
@@ -98,14 +112,14 @@ public class ParallelUserConfiguration {
                 .<User, User>chunk(CHUNK)
                 .reader(itemReader(null, null))
                 .processor(itemProcessor())
-                .writer(itemWriter())
+                .writer(itemWriter(null))
                 .build();
     }
 
     @Bean(JOB_NAME+"_userLevelUpStep.manager")
     public Step userLevelUpManagerStep() throws Exception {
         return this.stepBuilderFactory.get(JOB_NAME+"_userLevelUpStep.manager")
-                .partitioner(JOB_NAME+"_userLevelUpStep", new UserLevelUpPartitioner(userRepository))
+                .partitioner(JOB_NAME+"_userLevelUpStep", concurrencyTuner.partitioner(JOB_NAME, new UserLevelUpPartitioner(userRepository)))
                 .step(userLevelUpStep())
                 .partitionHandler(taskExecutorPartitionHandler())
                 .build();
@@ -116,8 +130,7 @@ public class ParallelUserConfiguration {
         TaskExecutorPartitionHandler handler = new TaskExecutorPartitionHandler();
 
         handler.setStep(userLevelUpStep());
-        handler.setTaskExecutor(this.taskExecutor);
-        handler.setGridSize(8);
+        handler.setTaskExecutor(this.partitionTaskExecutor);
 
         return handler;
     }
@@ -131,7 +144,7 @@ public class ParallelUserConfiguration {
 
         // 각 Step을 Flow로 감싼 이유는 2개의 Step의 Flow를 1개의 Flow로 감싸기 위해서.
         return new FlowBuilder<SimpleFlow>(JOB_NAME+"_splitFlow")
-                .split(this.taskExecutor)
+                .split(this.flowSplitTaskExecutor)
                 .add(userLevelUpFlow, orderStatisticsFlow(date)) // step 병렬로 처리
                 .build();
     }
@@ -141,7 +154,15 @@ public class ParallelUserConfiguration {
         return new FlowBuilder<SimpleFlow>(JOB_NAME+"_orderStatisticsFlow")
                 .start(new JobParametersDecide("date"))
                 .on(JobParametersDecide.CONTINUE.getName())
-                .to(this.orderStatisticsStep(date))
+                .to(this.monthlyOrdersStep(date))
+                .next(this.orderStatisticsStep(date))
+                .build();
+    }
+
+    private Step monthlyOrdersStep(String date) {
+        // 통계 reader가 읽을 월 테이블을 primary에 만들고 replica에 보일 때까지 기다린다. (주문은 saveUserStep이 월 테이블에도 쓴다)
+        return this.stepBuilderFactory.get(JOB_NAME+"_monthlyOrdersStep")
+                .tasklet(new MonthlyOrdersTableTasklet(dataSource, readDataSource, YearMonth.parse(date)))
                 .build();
     }
 
@@ -190,7 +211,7 @@ public class ParallelUserConfiguration {
         sortKey.put("created_date", Order.ASCENDING);
 
         JdbcPagingItemReader<OrderStatistics> itemReader = new JdbcPagingItemReaderBuilder<OrderStatistics>()
-                .dataSource(this.dataSource)
+                .dataSource(this.readDataSource) // 대량 조회는 replica
                 .rowMapper((resultSet, i) -> OrderStatistics.builder()
                         .amount(resultSet.getString(1))
                         .date(LocalDate.parse(resultSet.getString(2), DateTimeFormatter.ISO_DATE))
@@ -198,7 +219,7 @@ public class ParallelUserConfiguration {
                 .pageSize(CHUNK)
                 .name(JOB_NAME+"_orderStatisticsItemReader")
                 .selectClause("sum(amount), created_date")
-                .fromClause("orders")
+                .fromClause(MonthlyOrdersTables.tableName(yearMonth)) // 해당 월 테이블만 읽는다 (saveUserStep이 주문 저장 시 기록)
                 .whereClause("created_date > :startDate and created_date <= :endDate")
                 .groupClause("created_date")
                 .parameterValues(parameters)
@@ -211,13 +232,10 @@ public class ParallelUserConfiguration {
     }
 
 
-    private ItemWriter<? super User> itemWriter() {
-        return users -> {
-            users.forEach(x -> {
-                x.levelUp();
-                userRepository.save(x);
-            });
-        };
+    @Bean(JOB_NAME+"_userLevelItemWriter")
+    @StepScope
+    JdbcUserLevelItemWriter itemWriter(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        return new JdbcUserLevelItemWriter(dataSource, jobExecutionId); // 등급 상향 + level_history batch insert
     }
 
     private ItemProcessor<? super User,? extends User> itemProcessor() {
@@ -232,21 +250,11 @@ public class ParallelUserConfiguration {
 
     @Bean(JOB_NAME+"_userItemReader")
     @StepScope
-    JpaPagingItemReader<? extends User> itemReader(@Value("#{stepExecutionContext[minId]}") Long minId,
-                                          @Value("#{stepExecutionContext[maxId]}") Long maxId) throws Exception {
-        Map<String, Object> parameters = new HashMap<>();
-        parameters.put("minId", minId);
-        parameters.put("maxId", maxId);
-
-        JpaPagingItemReader<User> itemReader = new JpaPagingItemReaderBuilder<User>()
-                .queryString("select u from User u where u.id between :minId and :maxId")
-                .parameterValues(parameters)
-                .entityManagerFactory(entityManagerFactory)
-                .pageSize(CHUNK)
-                .name(JOB_NAME+"_userItemReader")
-                .build();
-
-        itemReader.afterPropertiesSet();
+    JdbcUserItemReader itemReader(@Value("#{stepExecutionContext[minId]}") Long minId,
+                                  @Value("#{stepExecutionContext[maxId]}") Long maxId) {
+        // partition 마다 마지막으로 commit 된 user id를 저장하고 재시작 시 그 다음부터 읽는다.
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, CHUNK, minId, maxId);
+        itemReader.setName(JOB_NAME+"_userItemReader");
         return itemReader;
     }
 }
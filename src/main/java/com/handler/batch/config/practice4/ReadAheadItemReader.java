@@ -0,0 +1,203 @@
+package com.handler.batch.config.practice4;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 별도 thread에서 blockSize 건씩 미리 읽어 두는 reader. (read-ahead)
+ *
+ * reader thread : block N+1 read -> queue
+ * step thread : queue -> chunk N process -> write -> commit (일반 chunk step 그대로)
+ *
+ * 쓰기와 commit은 step thread의 chunk 트랜잭션에서 실행되므로 listener, skip/retry, StepExecution 집계가 그대로 동작한다.
+ * 재시작 상태는 step thread가 가져간 위치 기준이다. (block 시작 시점의 delegate 상태 + block 안에서 가져간 건수)
+ * 재시작 시 delegate를 그 상태로 열고 가져간 건수 만큼 다시 읽어 버린다. 처리 시간이 read + write 에서 max(read, write)에 가까워진다.
+ */
+public class ReadAheadItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    private static final String CONSUMED = "consumed";
+
+    private final ItemStreamReader<T> delegate;
+    private final TaskExecutor taskExecutor;
+    private final int blockSize;
+    private final int queueCapacity;
+
+    private BlockingQueue<Block<T>> queue;
+    private CountDownLatch stopped;
+    private volatile boolean running;
+
+    private Block<T> current;
+    private Iterator<T> iterator;
+    private int consumed;
+    private Exception failure;
+
+    public ReadAheadItemReader(ItemStreamReader<T> delegate, TaskExecutor taskExecutor, int blockSize, int queueCapacity) {
+        this.delegate = delegate;
+        this.taskExecutor = taskExecutor;
+        this.blockSize = blockSize;
+        this.queueCapacity = queueCapacity;
+        setName(ClassUtils.getShortName(ReadAheadItemReader.class));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+
+        ExecutionContext startState = new ExecutionContext();
+        delegate.update(startState);
+        int skip = executionContext.getInt(getExecutionContextKey(CONSUMED), 0);
+
+        current = new Block<>(Collections.emptyList(), startState, skip, false, null);
+        iterator = current.items.iterator();
+        consumed = 0;
+        failure = null;
+
+        BlockingQueue<Block<T>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        CountDownLatch stopped = new CountDownLatch(1);
+        this.queue = queue;
+        this.stopped = stopped;
+        running = true;
+
+        taskExecutor.execute(() -> {
+            try {
+                readLoop(queue, startState, skip);
+            } finally {
+                stopped.countDown();
+            }
+        });
+    }
+
+    @Override
+    public T read() throws Exception {
+        while (!iterator.hasNext()) {
+            if (failure != null) {
+                throw failure;
+            }
+
+            if (current.end) {
+                return null;
+            }
+
+            Block<T> next = queue.take();
+
+            // reader thread의 예외는 step thread에서 던진다. (저장 위치는 마지막으로 가져간 item 그대로)
+            if (next.error != null) {
+                failure = next.error;
+                continue;
+            }
+
+            current = next;
+            iterator = current.items.iterator();
+            consumed = 0;
+        }
+
+        consumed++;
+        return iterator.next();
+    }
+
+    /**
+     * chunk commit 직전에 step thread에서 호출된다. 지금까지 step thread가 가져간 위치만 저장한다.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        for (Map.Entry<String, Object> entry : current.startState.entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+        executionContext.putInt(getExecutionContextKey(CONSUMED), current.startSkip + consumed);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        running = false;
+
+        if (stopped != null) {
+            try {
+                // reader thread가 queue에 넣으려고 기다리는 중이면 비워서 깨운다.
+                while (!stopped.await(100, TimeUnit.MILLISECONDS)) {
+                    queue.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        delegate.close();
+        queue = null;
+        stopped = null;
+    }
+
+    private void readLoop(BlockingQueue<Block<T>> queue, ExecutionContext startState, int skip) {
+        try {
+            for (int i = 0; i < skip; i++) {
+                delegate.read();
+            }
+
+            ExecutionContext state = startState;
+            int startSkip = skip;
+
+            while (running) {
+                List<T> items = new ArrayList<>(blockSize);
+                T item;
+
+                while (items.size() < blockSize && (item = delegate.read()) != null) {
+                    items.add(item);
+                }
+
+                boolean end = items.size() < blockSize;
+                if (!put(queue, new Block<>(items, state, startSkip, end, null)) || end) {
+                    return;
+                }
+
+                state = new ExecutionContext();
+                delegate.update(state);
+                startSkip = 0;
+            }
+        } catch (Exception e) {
+            put(queue, new Block<>(Collections.emptyList(), null, 0, true, e));
+        }
+    }
+
+    private boolean put(BlockingQueue<Block<T>> queue, Block<T> block) {
+        try {
+            while (running) {
+                if (queue.offer(block, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    private static class Block<T> {
+        private final List<T> items;
+        private final ExecutionContext startState; // block 첫 item을 읽기 직전 delegate 상태
+        private final int startSkip; // startState 에서 block 첫 item 까지 건너뛸 건수
+        private final boolean end;
+        private final Exception error;
+
+        private Block(List<T> items, ExecutionContext startState, int startSkip, boolean end, Exception error) {
+            this.items = items;
+            this.startState = startState;
+            this.startSkip = startSkip;
+            this.end = end;
+            this.error = error;
+        }
+    }
+}
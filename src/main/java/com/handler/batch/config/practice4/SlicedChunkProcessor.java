@@ -0,0 +1,112 @@
+package com.handler.batch.config.practice4;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * chunk를 sliceSize 단위로 나눠 taskExecutor에서 병렬로 process 하고, chunk 당 결과 list 1개를 writer에 넘긴다.
+ * AsyncItemProcessor는 item 마다 Future를 만들고 get() 하지만, 이 processor는 slice 마다 작업 1개만 제출한다.
+ * 첫 번째 slice는 chunk thread가 직접 처리한다.
+ *
+ * slice 안에서는 item 순서대로 처리하고 결과도 입력 순서대로 합친다.
+ * pool thread에서는 delegate를 직접 호출하므로 ItemProcessListener는 chunk thread가 처리하는 첫 slice에서만 호출되고, delegate는 thread-safe 해야 한다.
+ * item은 다른 thread로 넘어가므로 JPA 영속 상태 entity(lazy loading) 대신 detached 값만 읽어야 한다. (JdbcUserItemReader 등)
+ */
+public class SlicedChunkProcessor<I, O> extends SimpleChunkProcessor<I, O> {
+
+    private final ItemProcessor<? super I, ? extends O> itemProcessor;
+    private final TaskExecutor taskExecutor;
+    private final int sliceSize;
+    private int maxConcurrency = 0;
+
+    public SlicedChunkProcessor(ItemProcessor<? super I, ? extends O> itemProcessor,
+                                ItemWriter<? super O> itemWriter,
+                                TaskExecutor taskExecutor,
+                                int sliceSize) {
+        super(itemProcessor, itemWriter);
+        this.itemProcessor = itemProcessor;
+        this.taskExecutor = taskExecutor;
+        this.sliceSize = sliceSize;
+    }
+
+    /**
+     * chunk 당 동시에 제출할 slice 수. 넘으면 slice를 크게 잡는다. (0 이하면 제한 없음)
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    protected Chunk<O> transform(StepContribution contribution, Chunk<I> inputs) throws Exception {
+        List<I> items = inputs.getItems();
+
+        if (items.size() <= sliceSize) {
+            return super.transform(contribution, inputs);
+        }
+
+        int size = maxConcurrency > 0
+                ? Math.max(sliceSize, (items.size() + maxConcurrency - 1) / maxConcurrency)
+                : sliceSize;
+
+        List<FutureTask<List<O>>> tasks = new ArrayList<>();
+
+        for (int start = size; start < items.size(); start += size) {
+            List<I> slice = items.subList(start, Math.min(start + size, items.size()));
+            FutureTask<List<O>> task = new FutureTask<>(() -> processSlice(slice, itemProcessor));
+            tasks.add(task);
+            taskExecutor.execute(task);
+        }
+
+        Chunk<O> outputs = new Chunk<>();
+
+        try {
+            add(outputs, processSlice(items.subList(0, size), this::doProcess));
+
+            for (FutureTask<List<O>> task : tasks) {
+                add(outputs, task.get());
+            }
+        } catch (ExecutionException e) {
+            tasks.forEach(task -> task.cancel(false));
+
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } catch (Exception e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+
+        // filter count는 SimpleChunkProcessor가 (입력 건수 - 출력 건수)로 계산한다.
+        return outputs;
+    }
+
+    private void add(Chunk<O> outputs, List<O> items) {
+        for (O item : items) {
+            outputs.add(item);
+        }
+    }
+
+    private List<O> processSlice(List<I> slice, ItemProcessor<? super I, ? extends O> processor) throws Exception {
+        List<O> result = new ArrayList<>(slice.size());
+
+        for (I item : slice) {
+            O output = processor.process(item);
+
+            if (output != null) {
+                result.add(output);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.handler.batch.config.practice4;
+
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.builder.StepBuilderHelper;
+import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
+import org.springframework.batch.core.step.item.SimpleChunkProvider;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.ArrayList;
+
+/**
+ * SimpleStepBuilder와 같고 chunk processor만 SlicedChunkProcessor로 바꾼다.
+ * reader / writer / stream / listener 등록은 SimpleStepBuilder 그대로라 builder에 등록한 item listener가 provider, processor에 전달된다.
+ *
+ * new SlicedStepBuilder<User, User>(stepBuilderFactory.get(name), sliceTaskExecutor, SLICE).maxConcurrency(n).chunk(...)
+ */
+public class SlicedStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
+
+    private final TaskExecutor taskExecutor;
+    private final int sliceSize;
+    private int maxConcurrency = 0;
+
+    public SlicedStepBuilder(StepBuilderHelper<?> parent, TaskExecutor taskExecutor, int sliceSize) {
+        super(parent);
+        this.taskExecutor = taskExecutor;
+        this.sliceSize = sliceSize;
+    }
+
+    /**
+     * SlicedChunkProcessor#setMaxConcurrency
+     */
+    public SlicedStepBuilder<I, O> maxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    @Override
+    protected Tasklet createTasklet() {
+        SimpleChunkProvider<I> chunkProvider = new SimpleChunkProvider<>(getReader(), createChunkOperations());
+        SlicedChunkProcessor<I, O> chunkProcessor = new SlicedChunkProcessor<>(getProcessor(), getWriter(), taskExecutor, sliceSize);
+        chunkProcessor.setMaxConcurrency(maxConcurrency);
+
+        chunkProvider.setListeners(new ArrayList<>(getItemListeners()));
+        chunkProcessor.setListeners(new ArrayList<>(getItemListeners()));
+
+        ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(chunkProvider, chunkProcessor);
+        tasklet.setBuffering(!isReaderTransactionalQueue());
+        return tasklet;
+    }
+}
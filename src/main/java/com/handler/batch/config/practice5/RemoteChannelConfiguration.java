@@ -0,0 +1,78 @@
+package com.handler.batch.config.practice5;
+
+import org.springframework.batch.integration.config.annotation.EnableBatchIntegration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.dsl.Pollers;
+import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
+import org.springframework.integration.jdbc.store.channel.ChannelMessageStoreQueryProvider;
+import org.springframework.integration.jdbc.store.channel.H2ChannelMessageStoreQueryProvider;
+import org.springframework.integration.jdbc.store.channel.MySqlChannelMessageStoreQueryProvider;
+import org.springframework.integration.scheduling.PollerMetadata;
+import org.springframework.integration.store.MessageGroupQueue;
+
+import javax.sql.DataSource;
+
+/**
+ * remote partitioning / remote chunking 메시지 채널.
+ *
+ * batch.remote.transport
+ * - local (default) : in-memory QueueChannel. manager와 worker가 같은 JVM에 있을 때 (테스트)
+ * - jdbc : INT_CHANNEL_MESSAGE 테이블에 메시지를 저장하는 QueueChannel. 같은 DB를 보는 여러 JVM이 나눠서 소비한다.
+ *          외부 broker 없이 로컬 프로세스 여러 개로 실행할 때는 file 모드 H2(AUTO_SERVER=TRUE) 또는 MySQL을 사용.
+ */
+@Configuration
+@EnableBatchIntegration
+public class RemoteChannelConfiguration {
+
+    public static final String PARTITION_REQUESTS = "userPartitionRequests";
+    public static final String CHUNK_REQUESTS = "userChunkRequests";
+    public static final String CHUNK_REPLIES = "userChunkReplies";
+
+    @Bean(PARTITION_REQUESTS)
+    QueueChannel userPartitionRequests(ObjectProvider<JdbcChannelMessageStore> channelMessageStore) {
+        return channel(channelMessageStore, PARTITION_REQUESTS);
+    }
+
+    @Bean(CHUNK_REQUESTS)
+    QueueChannel userChunkRequests(ObjectProvider<JdbcChannelMessageStore> channelMessageStore) {
+        return channel(channelMessageStore, CHUNK_REQUESTS);
+    }
+
+    @Bean(CHUNK_REPLIES)
+    QueueChannel userChunkReplies(ObjectProvider<JdbcChannelMessageStore> channelMessageStore) {
+        return channel(channelMessageStore, CHUNK_REPLIES);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.remote.transport", havingValue = "jdbc")
+    JdbcChannelMessageStore channelMessageStore(DataSource dataSource,
+                                                @Value("${batch.remote.jdbc-platform:h2}") String platform) {
+        ChannelMessageStoreQueryProvider queryProvider = "mysql".equalsIgnoreCase(platform)
+                ? new MySqlChannelMessageStoreQueryProvider()
+                : new H2ChannelMessageStoreQueryProvider();
+
+        JdbcChannelMessageStore channelMessageStore = new JdbcChannelMessageStore(dataSource);
+        channelMessageStore.setChannelMessageStoreQueryProvider(queryProvider);
+        return channelMessageStore;
+    }
+
+    @Bean(PollerMetadata.DEFAULT_POLLER)
+    PollerMetadata defaultPoller(@Value("${batch.remote.poll-interval:100}") long pollInterval) {
+        return Pollers.fixedDelay(pollInterval).get();
+    }
+
+    private QueueChannel channel(ObjectProvider<JdbcChannelMessageStore> channelMessageStore, String groupId) {
+        JdbcChannelMessageStore store = channelMessageStore.getIfAvailable();
+
+        if (store == null) {
+            return new QueueChannel();
+        }
+
+        return new QueueChannel(new MessageGroupQueue(store, groupId));
+    }
+}
@@ -0,0 +1,136 @@
+package com.handler.batch.config.practice5;
+
+import com.handler.batch.config.practice2.JdbcUserItemReader;
+import com.handler.batch.config.practice2.JdbcUserLevelItemWriter;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
+import com.handler.batch.config.practice2.LevelUpJobExecutionListener;
+import com.handler.batch.config.practice2.SaveUserTasklet;
+import com.handler.batch.config.practice2.User;
+import com.handler.batch.config.practice2.UserRepository;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.item.ChunkProcessor;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.integration.chunk.ChunkProcessorChunkHandler;
+import org.springframework.batch.integration.chunk.RemoteChunkingManagerStepBuilderFactory;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.core.MessagingTemplate;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlows;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * remote chunking. manager는 읽기만 하고 chunk를 채널로 보내며, worker가 process + write 후 결과를 회신한다.
+ * 읽기보다 처리(processor)가 무거운 경우에 worker JVM을 늘려 처리량을 높인다.
+ * 채널 transport는 RemoteChannelConfiguration 참고.
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class RemoteChunkUserConfiguration {
+
+    private final String JOB_NAME = "remoteChunkUserJob";
+    private final int CHUNK = 1000;
+    private final long REPLY_TIMEOUT = 1000;
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final RemoteChunkingManagerStepBuilderFactory managerStepBuilderFactory;
+    private final UserRepository userRepository;
+    private final LevelHistoryRepository levelHistoryRepository;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier(RemoteChannelConfiguration.CHUNK_REQUESTS)
+    private final QueueChannel userChunkRequests;
+    @Qualifier(RemoteChannelConfiguration.CHUNK_REPLIES)
+    private final QueueChannel userChunkReplies;
+
+    @Bean(JOB_NAME)
+    public Job userJob() throws Exception {
+        return this.jobBuilderFactory.get(JOB_NAME)
+                .incrementer(new RunIdIncrementer())
+                .start(this.saveUserStep())
+                .next(this.userLevelUpManagerStep())
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_saveUserStep")
+    public Step saveUserStep() {
+        return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_userLevelUpStep.manager")
+    public Step userLevelUpManagerStep() throws Exception {
+        return this.managerStepBuilderFactory.<User, User>get(JOB_NAME+"_userLevelUpStep.manager")
+                .chunk(CHUNK)
+                .reader(itemReader())
+                .messagingTemplate(messagingTemplate())
+                .inputChannel(userChunkReplies)
+                .build();
+    }
+
+    /**
+     * jdbc transport의 MessageGroupQueue는 같은 JVM의 offer로만 깨어나므로, 시간 제한 없이 기다리면 다른 JVM worker의 응답을 받지 못한다.
+     * REPLY_TIMEOUT 마다 store를 다시 조회한다. (step 종료 시 응답 대기는 maxWaitTimeouts(기본 40)회까지)
+     */
+    private MessagingTemplate messagingTemplate() {
+        MessagingTemplate messagingTemplate = new MessagingTemplate(userChunkRequests);
+        messagingTemplate.setReceiveTimeout(REPLY_TIMEOUT);
+        return messagingTemplate;
+    }
+
+    /**
+     * RemoteChunkingWorkerBuilder와 같은 flow에 chunk 트랜잭션만 추가한다.
+     */
+    @Bean(JOB_NAME+"_workerFlow")
+    public IntegrationFlow workerFlow() throws Exception {
+        ChunkProcessorChunkHandler<User> chunkHandler = new ChunkProcessorChunkHandler<>();
+        // worker에는 step context가 없으므로 jobExecutionId는 manager가 보낸 contribution의 StepExecution에서 꺼낸다.
+        ChunkProcessor<User> chunkProcessor = (contribution, chunk) -> new SimpleChunkProcessor<>(
+                itemProcessor(), itemWriter(contribution.getStepExecution().getJobExecutionId())).process(contribution, chunk);
+        chunkHandler.setChunkProcessor(new TransactionalChunkProcessor<>(chunkProcessor, transactionManager));
+        chunkHandler.afterPropertiesSet();
+
+        return IntegrationFlows.from(userChunkRequests)
+                .handle(chunkHandler, "handleChunk")
+                .channel(userChunkReplies)
+                .get();
+    }
+
+    private ItemWriter<User> itemWriter(Long jobExecutionId) {
+        // level, updated_date만 JDBC batch update + level_history batch insert
+        return new JdbcUserLevelItemWriter(dataSource, jobExecutionId);
+    }
+
+    private ItemProcessor<User, User> itemProcessor() {
+        return user -> {
+            if (user.availableLevelUp()) { // 등급 상향 대상 체크
+                return user;
+            }
+
+            return null;
+        };
+    }
+
+    private JdbcUserItemReader itemReader() {
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, CHUNK);
+        itemReader.setName(JOB_NAME+"_userItemReader");
+        return itemReader;
+    }
+}
@@ -0,0 +1,126 @@
+package com.handler.batch.config.practice5;
+
+import com.handler.batch.config.executor.ConcurrencyTuner;
+import com.handler.batch.config.practice2.JdbcUserItemReader;
+import com.handler.batch.config.practice2.JdbcUserLevelItemWriter;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
+import com.handler.batch.config.practice2.LevelUpJobExecutionListener;
+import com.handler.batch.config.practice2.SaveUserTasklet;
+import com.handler.batch.config.practice2.User;
+import com.handler.batch.config.practice2.UserRepository;
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
+import com.handler.batch.config.practice4.UserLevelUpPartitioner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.integration.partition.RemotePartitioningManagerStepBuilderFactory;
+import org.springframework.batch.integration.partition.RemotePartitioningWorkerStepBuilderFactory;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.QueueChannel;
+
+import javax.sql.DataSource;
+
+/**
+ * UserLevelUpPartitioner 기반 remote partitioning.
+ * manager는 partition 요청(StepExecutionRequest)을 채널로 보내고, 결과는 공유 JobRepository를 polling 해서 확인한다.
+ * worker는 같은 JVM(local transport) 또는 같은 DB를 보는 다른 JVM(jdbc transport)에서 요청을 꺼내 worker step을 실행한다.
+ *
+ * worker 전용 프로세스 실행
+ * java -jar batch.jar --batch.remote.role=worker --batch.remote.transport=jdbc --server.port=0 \
+ *   --spring.datasource.url=jdbc:h2:file:./data/batch;AUTO_SERVER=TRUE
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class RemotePartitionUserConfiguration {
+
+    private final String JOB_NAME = "remotePartitionUserJob";
+    private final int CHUNK = 1000;
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final RemotePartitioningManagerStepBuilderFactory managerStepBuilderFactory;
+    private final RemotePartitioningWorkerStepBuilderFactory workerStepBuilderFactory;
+    private final UserRepository userRepository;
+    private final LevelHistoryRepository levelHistoryRepository;
+    private final DataSource dataSource;
+    private final ConcurrencyTuner concurrencyTuner;
+    @Qualifier(RemoteChannelConfiguration.PARTITION_REQUESTS)
+    private final QueueChannel userPartitionRequests;
+
+    @Bean(JOB_NAME)
+    public Job userJob() throws Exception {
+        return this.jobBuilderFactory.get(JOB_NAME)
+                .incrementer(new RunIdIncrementer())
+                .start(this.saveUserStep())
+                .next(this.userLevelUpManagerStep())
+                .listener(new LevelUpJobExecutionListener(levelHistoryRepository))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_saveUserStep")
+    public Step saveUserStep() {
+        return this.stepBuilderFactory.get(JOB_NAME+"_saveUserStep")
+                .tasklet(new SaveUserTasklet(userRepository, new MonthlyOrdersTables(dataSource)))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_userLevelUpStep.manager")
+    public Step userLevelUpManagerStep() {
+        return this.managerStepBuilderFactory.get(JOB_NAME+"_userLevelUpStep.manager")
+                .partitioner(JOB_NAME+"_userLevelUpStep", concurrencyTuner.partitioner(JOB_NAME, new UserLevelUpPartitioner(userRepository)))
+                .outputChannel(userPartitionRequests)
+                .pollInterval(1000) // worker step 완료 여부를 JobRepository 에서 확인
+                .build();
+    }
+
+    /**
+     * worker step. bean 이름이 manager가 보내는 step 이름과 같아야 StepExecutionRequestHandler가 찾을 수 있다.
+     */
+    @Bean(JOB_NAME+"_userLevelUpStep")
+    public Step userLevelUpWorkerStep() throws Exception {
+        return this.workerStepBuilderFactory.get(JOB_NAME+"_userLevelUpStep")
+                .inputChannel(userPartitionRequests)
+                .<User, User>chunk(CHUNK)
+                .reader(itemReader(null, null))
+                .processor(itemProcessor())
+                .writer(itemWriter(null))
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_userLevelItemWriter")
+    @StepScope
+    JdbcUserLevelItemWriter itemWriter(@Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        // level, updated_date만 JDBC batch update + level_history batch insert
+        return new JdbcUserLevelItemWriter(dataSource, jobExecutionId);
+    }
+
+    private ItemProcessor<? super User,? extends User> itemProcessor() {
+        return user -> {
+            if (user.availableLevelUp()) { // 등급 상향 대상 체크
+                return user;
+            }
+
+            return null;
+        };
+    }
+
+    @Bean(JOB_NAME+"_userItemReader")
+    @StepScope
+    JdbcUserItemReader itemReader(@Value("#{stepExecutionContext[minId]}") Long minId,
+                                  @Value("#{stepExecutionContext[maxId]}") Long maxId) {
+        // partition 마다 마지막으로 commit 된 user id를 저장하고 재시작 시 그 다음부터 읽는다.
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, CHUNK, minId, maxId);
+        itemReader.setName(JOB_NAME+"_userItemReader");
+        return itemReader;
+    }
+}
@@ -0,0 +1,46 @@
+package com.handler.batch.config.practice5;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.item.ChunkProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * remote chunking worker의 process + write를 chunk 1개당 트랜잭션 1개로 실행한다.
+ * ChunkProcessorChunkHandler는 트랜잭션을 열지 않기 때문에 그대로 쓰면 writer가 auto-commit으로 건건이 저장되고,
+ * 중간에 실패해도 앞서 쓴 item이 rollback 되지 않는다.
+ */
+public class TransactionalChunkProcessor<I> implements ChunkProcessor<I> {
+
+    private final ChunkProcessor<I> delegate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionalChunkProcessor(ChunkProcessor<I> delegate, PlatformTransactionManager transactionManager) {
+        this.delegate = delegate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void process(StepContribution contribution, Chunk<I> chunk) throws Exception {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    delegate.process(contribution, chunk);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ChunkFailedException(e);
+                }
+            });
+        } catch (ChunkFailedException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private static class ChunkFailedException extends RuntimeException {
+        private ChunkFailedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.handler.batch.config.practice6;
+
+import com.handler.batch.config.practice3.MonthlyOrdersMigrationTasklet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 월 테이블(orders_yyyyMM)이 생기기 전에 저장된 주문을 한 번 옮기는 job.
+ * 이후 주문은 저장할 때 월 테이블에도 쓰고, orderArchiveJob은 삭제 전에 복사하므로 다시 실행할 필요는 없다.
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class MonthlyOrdersMigrationConfiguration {
+
+    private final String JOB_NAME = "monthlyOrdersMigrationJob";
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final DataSource dataSource;
+
+    @Value("${batch.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Bean(JOB_NAME)
+    public Job monthlyOrdersMigrationJob() {
+        return this.jobBuilderFactory.get(JOB_NAME)
+                .incrementer(new RunIdIncrementer())
+                .start(this.monthlyOrdersMigrationStep())
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_monthlyOrdersMigrationStep")
+    public Step monthlyOrdersMigrationStep() {
+        return this.stepBuilderFactory.get(JOB_NAME+"_monthlyOrdersMigrationStep")
+                .tasklet(new MonthlyOrdersMigrationTasklet(dataSource, batchSize))
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.handler.batch.config.practice6;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 보관 기간(batch.archive.retention-months)이 지난 주문을 orders_archive로 옮기는 job.
+ * 작은 key 범위 단위의 짧은 트랜잭션 + 트랜잭션 사이 pause 로 운영 중에도 실행할 수 있다.
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class OrderArchiveConfiguration {
+
+    private final String JOB_NAME = "orderArchiveJob";
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final DataSource dataSource;
+
+    @Value("${batch.archive.retention-months:12}")
+    private int retentionMonths;
+    @Value("${batch.archive.batch-size:1000}")
+    private int batchSize;
+    @Value("${batch.archive.pause-millis:100}")
+    private long pauseMillis;
+
+    @Bean(JOB_NAME)
+    public Job orderArchiveJob() {
+        return this.jobBuilderFactory.get(JOB_NAME)
+                .incrementer(new RunIdIncrementer())
+                .start(this.orderArchiveStep())
+                .build();
+    }
+
+    @Bean(JOB_NAME+"_orderArchiveStep")
+    public Step orderArchiveStep() {
+        OrderArchiveTasklet tasklet = new OrderArchiveTasklet(dataSource, retentionMonths, batchSize, pauseMillis);
+
+        return this.stepBuilderFactory.get(JOB_NAME+"_orderArchiveStep")
+                .tasklet(tasklet)
+                .listener((ChunkListener) tasklet) // commit 후 pause
+                .build();
+    }
+}
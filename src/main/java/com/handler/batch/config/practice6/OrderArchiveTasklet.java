@@ -0,0 +1,118 @@
+package com.handler.batch.config.practice6;
+
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * created_date가 보관 기준일 이전인 주문을 orders -> orders_archive로 옮긴다.
+ *
+ * execute 1회(= 트랜잭션 1개)에 id 순으로 최대 batchSize 건의 key 범위 (lastId, upperId]만 처리한다.
+ * - user 별 주문 금액 합계를 user.archived_amount에 더한다. (삭제 후에도 등급 계산 금액이 같도록)
+ * - 월 테이블(orders_yyyyMM)에 아직 없는 주문을 복사한다. (월별 통계는 삭제 후에도 월 테이블을 읽는다)
+ * - insert ... select 로 orders_archive에 복사하고 같은 범위를 delete
+ * - lastId를 step ExecutionContext에 저장 (같은 트랜잭션에서 commit 되므로 재시작 시 중복 / 누락 없음)
+ *
+ * commit 후 pauseMillis 만큼 쉬어서 (afterChunk) 운영 트래픽이 lock을 오래 기다리지 않게 한다.
+ * 기준일은 처음 실행할 때 정해서 저장하고, 재시작 시에도 같은 기준일을 사용한다.
+ */
+@Slf4j
+public class OrderArchiveTasklet implements Tasklet, ChunkListener {
+
+    private static final String LAST_ID = "archive.lastId";
+    private static final String CUTOFF_DATE = "archive.cutoffDate";
+
+    private static final String UPPER_ID = "select max(id) from (select id from orders where id > ? and created_date < ? order by id limit ?) t";
+    private static final String USER_AMOUNT = "select user_id, sum(amount) from orders " +
+            "where id > ? and id <= ? and created_date < ? and user_id is not null group by user_id";
+    private static final String CARRY_FORWARD = "update user set archived_amount = archived_amount + ? where id = ?";
+    private static final String ARCHIVE = "insert into orders_archive (id, item_name, amount, created_date, user_id, archived_date) " +
+            "select id, item_name, amount, created_date, user_id, ? from orders where id > ? and id <= ? and created_date < ?";
+    private static final String DELETE = "delete from orders where id > ? and id <= ? and created_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyOrdersTables monthlyOrdersTables;
+    private final int retentionMonths;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public OrderArchiveTasklet(DataSource dataSource, int retentionMonths, int batchSize, long pauseMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.monthlyOrdersTables = new MonthlyOrdersTables(dataSource);
+        this.retentionMonths = retentionMonths;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        ExecutionContext executionContext = contribution.getStepExecution().getExecutionContext();
+
+        if (!executionContext.containsKey(CUTOFF_DATE)) {
+            executionContext.putString(CUTOFF_DATE, LocalDate.now().minusMonths(retentionMonths).toString());
+        }
+
+        Date cutoffDate = Date.valueOf(executionContext.getString(CUTOFF_DATE));
+        long lastId = executionContext.getLong(LAST_ID, 0L);
+
+        Long upperId = jdbcTemplate.queryForObject(UPPER_ID, Long.class, lastId, cutoffDate, batchSize);
+
+        if (upperId == null) {
+            log.info("orders archive 완료 : {} 이전 주문 {}건", cutoffDate, contribution.getStepExecution().getWriteCount());
+            return RepeatStatus.FINISHED;
+        }
+
+        List<Object[]> userAmounts = jdbcTemplate.query(USER_AMOUNT,
+                (resultSet, i) -> new Object[] {resultSet.getLong(2), resultSet.getLong(1)},
+                lastId, upperId, cutoffDate);
+        jdbcTemplate.batchUpdate(CARRY_FORWARD, userAmounts);
+
+        monthlyOrdersTables.copy(lastId, upperId);
+
+        int archived = jdbcTemplate.update(ARCHIVE, Date.valueOf(LocalDate.now()), lastId, upperId, cutoffDate);
+        int deleted = jdbcTemplate.update(DELETE, lastId, upperId, cutoffDate);
+
+        if (archived != deleted) {
+            throw new IllegalStateException("archived " + archived + " rows but deleted " + deleted + " rows in (" + lastId + ", " + upperId + "]");
+        }
+
+        contribution.incrementWriteCount(deleted);
+        executionContext.putLong(LAST_ID, upperId);
+
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (pauseMillis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+
+    }
+}
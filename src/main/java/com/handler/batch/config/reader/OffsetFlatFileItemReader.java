@@ -0,0 +1,213 @@
+package com.handler.batch.config.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * commit 마다 다음에 읽을 line의 byte offset과 line 번호를 ExecutionContext에 저장하는 flat file reader.
+ * FlatFileItemReader는 재시작 시 저장된 item 수만큼 line을 다시 읽어 버리지만, 이 reader는 offset으로 바로 이동한다.
+ *
+ * line 구분은 '\n' byte 기준이므로 UTF-8 같은 ASCII 호환 encoding만 지원한다. (UTF-16 불가)
+ * 파일 시스템 resource는 FileChannel.position으로 이동하고, 그 외(jar 내부 등)는 offset 만큼 byte를 건너뛴다.
+ */
+public class OffsetFlatFileItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> implements InitializingBean {
+
+    private static final String OFFSET = "offset";
+    private static final String LINE = "line";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Resource resource;
+    private final LineMapper<T> lineMapper;
+    private final Charset encoding;
+    private final int linesToSkip;
+
+    private long startOffset = -1;
+    private int startLine = 0;
+
+    private ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteArrayOutputStream lineBytes = new ByteArrayOutputStream(256);
+    private long offset;
+    private int lineNumber;
+    private long restoredOffset = -1;
+    private int restoredLine;
+
+    public OffsetFlatFileItemReader(String name, Resource resource, LineMapper<T> lineMapper, Charset encoding, int linesToSkip) {
+        this.resource = resource;
+        this.lineMapper = lineMapper;
+        this.encoding = encoding;
+        this.linesToSkip = linesToSkip;
+        setName(name);
+    }
+
+    /**
+     * 처음 실행 시 header skip 대신 지정한 위치부터 읽는다. (파일을 나눠 읽는 partition 용)
+     */
+    public void setStartOffset(long startOffset, int startLine) {
+        this.startOffset = startOffset;
+        this.startLine = startLine;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(resource, "resource is required");
+        Assert.notNull(lineMapper, "lineMapper is required");
+        Assert.notNull(encoding, "encoding is required");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(OFFSET))) {
+            restoredOffset = executionContext.getLong(getExecutionContextKey(OFFSET));
+            restoredLine = executionContext.getInt(getExecutionContextKey(LINE));
+        }
+
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(OFFSET), offset);
+            executionContext.putInt(getExecutionContextKey(LINE), lineNumber);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        channel = resource.isFile()
+                ? FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)
+                : Channels.newChannel(resource.getInputStream());
+        buffer.clear().flip();
+        offset = 0;
+        lineNumber = 0;
+
+        if (restoredOffset >= 0) {
+            seek(restoredOffset, restoredLine);
+            return;
+        }
+
+        if (startOffset >= 0) {
+            seek(startOffset, startLine);
+            return;
+        }
+
+        for (int i = 0; i < linesToSkip; i++) {
+            readLine();
+        }
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        // offset으로 이미 이동했으면 line을 다시 읽어 버릴 필요가 없다.
+        if (restoredOffset >= 0 || startOffset >= 0) {
+            return;
+        }
+
+        super.jumpToItem(itemIndex);
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        String line = readLine();
+
+        if (line == null) {
+            return null;
+        }
+
+        return lineMapper.mapLine(line, lineNumber);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (channel != null) {
+            channel.close();
+        }
+        restoredOffset = -1;
+    }
+
+    private void seek(long target, int line) throws IOException {
+        if (channel instanceof FileChannel) {
+            ((FileChannel) channel).position(target);
+        } else {
+            ByteBuffer skip = ByteBuffer.allocate(BUFFER_SIZE);
+            long remaining = target;
+            while (remaining > 0) {
+                skip.clear().limit((int) Math.min(BUFFER_SIZE, remaining));
+                int read = channel.read(skip);
+                if (read < 0) break;
+                remaining -= read;
+            }
+        }
+
+        buffer.clear().flip();
+        offset = target;
+        lineNumber = line;
+    }
+
+    private String readLine() throws IOException {
+        lineBytes.reset();
+
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+
+                if (read < 0) {
+                    return lineBytes.size() == 0 ? null : toLine();
+                }
+                continue;
+            }
+
+            // buffer 안에서 '\n'을 찾아 한 번에 복사
+            byte[] array = buffer.array();
+            int start = buffer.position();
+            int end = start;
+
+            while (end < buffer.limit() && array[end] != '\n') {
+                end++;
+            }
+
+            lineBytes.write(array, start, end - start);
+
+            if (end < buffer.limit()) {
+                buffer.position(end + 1);
+                offset += end - start + 1;
+                return toLine();
+            }
+
+            buffer.position(end);
+            offset += end - start;
+        }
+    }
+
+    private String toLine() {
+        lineNumber++;
+
+        byte[] bytes = lineBytes.toByteArray();
+        int length = bytes.length;
+
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+
+        return new String(bytes, 0, length, encoding);
+    }
+}
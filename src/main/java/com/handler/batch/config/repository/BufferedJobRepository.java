@@ -0,0 +1,150 @@
+package com.handler.batch.config.repository;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chunk commit 마다 저장하던 StepExecution / step ExecutionContext를 flushInterval 마다 한 번만 저장하는 JobRepository.
+ * 그 사이의 진행 상태(읽은 위치, 건수)는 메모리의 StepExecution에만 반영된다.
+ *
+ * - step 시작 / 종료(STARTED 외 상태), 실패, 중지 요청은 항상 바로 저장한다.
+ * - ExecutionContext를 저장한 commit 에서만 StepExecution도 함께 저장해서 건수와 재시작 위치가 어긋나지 않게 한다.
+ * - 재시작은 마지막으로 저장된 checkpoint 부터 한다. 그 이후 commit 된 chunk는 다시 처리되므로 writer는 멱등이어야 한다.
+ *   (등급 상향은 같은 user를 다시 써도 결과가 같다)
+ * - 외부에서 job을 중지해도 다음 저장 시점에 감지한다.
+ */
+public class BufferedJobRepository implements JobRepository {
+
+    private final JobRepository delegate;
+    private final long flushIntervalNanos;
+
+    private final Map<Long, Long> lastFlush = new ConcurrentHashMap<>();
+    private final Set<Long> updatePending = ConcurrentHashMap.newKeySet();
+    private final Set<Long> contextPending = ConcurrentHashMap.newKeySet();
+
+    public BufferedJobRepository(JobRepository delegate, long flushIntervalMillis) {
+        this.delegate = delegate;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+    /**
+     * TaskletStep은 ExecutionContext -> StepExecution 순서로 저장하지만 호출 순서에 의존하지 않도록
+     * 어느 쪽이든 먼저 저장 시점이 된 쪽이 저장하고 나머지 한 쪽을 pending으로 표시해서 같이 저장되게 한다.
+     */
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        Long id = stepExecution.getId();
+
+        if (contextPending.remove(id) || mustFlush(stepExecution)) {
+            delegate.updateExecutionContext(stepExecution);
+        } else if (due(id)) {
+            delegate.updateExecutionContext(stepExecution);
+            lastFlush.put(id, System.nanoTime());
+            updatePending.add(id);
+        }
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        Long id = stepExecution.getId();
+
+        if (mustFlush(stepExecution)) {
+            delegate.update(stepExecution);
+            if (stepExecution.getStatus() != BatchStatus.STARTED) {
+                clear(id);
+            }
+        } else if (updatePending.remove(id)) {
+            delegate.update(stepExecution);
+        } else if (due(id)) {
+            delegate.update(stepExecution);
+            lastFlush.put(id, System.nanoTime());
+            contextPending.add(id);
+        }
+    }
+
+    private boolean due(Long id) {
+        Long last = lastFlush.get(id);
+        return last == null || System.nanoTime() - last >= flushIntervalNanos;
+    }
+
+    private boolean mustFlush(StepExecution stepExecution) {
+        return stepExecution.getStatus() != BatchStatus.STARTED
+                || stepExecution.getEndTime() != null
+                || stepExecution.isTerminateOnly();
+    }
+
+    private void clear(Long id) {
+        lastFlush.remove(id);
+        updatePending.remove(id);
+        contextPending.remove(id);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(JobInstance jobInstance, JobParameters jobParameters, String jobConfigurationLocation) {
+        return delegate.createJobExecution(jobInstance, jobParameters, jobConfigurationLocation);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        delegate.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        delegate.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        delegate.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegate.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public int getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+}
@@ -0,0 +1,58 @@
+package com.handler.batch.config.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.batch.JpaBatchConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * batch.repository.mode=buffered 이면 JobRepository를 BufferedJobRepository로 감싼다.
+ * chunk가 작고 partition이 많아서 commit 마다 BATCH_STEP_EXECUTION(_CONTEXT) update가 병목일 때 사용한다.
+ *
+ * 기본(default)은 spring boot가 만드는 JpaBatchConfigurer를 그대로 쓰고, buffered도 같은 설정에 JobRepository만 감싼다.
+ */
+@Slf4j
+@Configuration
+public class JobRepositoryConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.repository.mode", havingValue = "buffered")
+    BatchConfigurer bufferedBatchConfigurer(BatchProperties properties,
+                                            DataSource dataSource,
+                                            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers,
+                                            EntityManagerFactory entityManagerFactory,
+                                            @Value("${batch.repository.flush-interval:5000}") long flushIntervalMillis) {
+        return new BufferedBatchConfigurer(properties, dataSource, transactionManagerCustomizers.getIfAvailable(),
+                entityManagerFactory, flushIntervalMillis);
+    }
+
+    static class BufferedBatchConfigurer extends JpaBatchConfigurer {
+
+        private final long flushIntervalMillis;
+
+        BufferedBatchConfigurer(BatchProperties properties,
+                                DataSource dataSource,
+                                TransactionManagerCustomizers transactionManagerCustomizers,
+                                EntityManagerFactory entityManagerFactory,
+                                long flushIntervalMillis) {
+            super(properties, dataSource, transactionManagerCustomizers, entityManagerFactory);
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        @Override
+        protected JobRepository createJobRepository() throws Exception {
+            log.info("buffered job repository : step execution flush interval {}ms", flushIntervalMillis);
+            return new BufferedJobRepository(super.createJobRepository(), flushIntervalMillis);
+        }
+    }
+}
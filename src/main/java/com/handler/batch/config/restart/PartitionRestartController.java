@@ -0,0 +1,21 @@
+package com.handler.batch.config.restart;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * GET /batch/restart/{jobName} : 다시 실행하면 이어서 처리할 partition 목록. (worker 처럼 떠 있는 프로세스용)
+ */
+@RestController
+@RequiredArgsConstructor
+public class PartitionRestartController {
+
+    private final PartitionRestartInspector partitionRestartInspector;
+
+    @GetMapping("/batch/restart/{jobName}")
+    public RestartPlan restartPlan(@PathVariable String jobName) {
+        return partitionRestartInspector.inspect(jobName);
+    }
+}
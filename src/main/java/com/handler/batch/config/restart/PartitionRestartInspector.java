@@ -0,0 +1,91 @@
+package com.handler.batch.config.restart;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 마지막 job instance의 모든 실행에서 step(partition) 이름별 마지막 StepExecution을 모아 재시작 시 처리 여부를 계산한다.
+ * spring batch와 같은 기준 : COMPLETED 는 건너뛰고 나머지는 저장된 ExecutionContext 부터 다시 실행한다.
+ */
+public class PartitionRestartInspector {
+
+    private static final String LAST_ID_SUFFIX = ".lastId";
+
+    private final JobExplorer jobExplorer;
+
+    public PartitionRestartInspector(JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    public RestartPlan inspect(String jobName) {
+        JobExecution lastExecution = RestartableRunIdIncrementer.lastExecution(jobExplorer, jobName);
+
+        if (lastExecution == null) {
+            return RestartPlan.builder()
+                    .jobName(jobName)
+                    .restartable(false)
+                    .steps(Collections.emptyList())
+                    .build();
+        }
+
+        boolean restartable = RestartableRunIdIncrementer.isRestartable(lastExecution.getStatus());
+        Map<String, StepExecution> latest = new TreeMap<>();
+
+        for (JobExecution jobExecution : jobExplorer.getJobExecutions(lastExecution.getJobInstance())) {
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                latest.merge(stepExecution.getStepName(), stepExecution,
+                        (previous, current) -> previous.getId() > current.getId() ? previous : current);
+            }
+        }
+
+        List<PartitionResume> steps = new ArrayList<>();
+
+        for (StepExecution stepExecution : latest.values()) {
+            ExecutionContext executionContext = stepExecution.getExecutionContext();
+
+            steps.add(PartitionResume.builder()
+                    .stepName(stepExecution.getStepName())
+                    .status(stepExecution.getStatus())
+                    .resume(restartable && stepExecution.getStatus() != BatchStatus.COMPLETED)
+                    .minId(getLong(executionContext, "minId"))
+                    .maxId(getLong(executionContext, "maxId"))
+                    .lastId(lastId(executionContext))
+                    .writeCount(stepExecution.getWriteCount())
+                    .commitCount(stepExecution.getCommitCount())
+                    .build());
+        }
+
+        return RestartPlan.builder()
+                .jobName(jobName)
+                .jobInstanceId(lastExecution.getJobInstance().getInstanceId())
+                .jobExecutionId(lastExecution.getId())
+                .status(lastExecution.getStatus())
+                .restartable(restartable)
+                .steps(steps)
+                .build();
+    }
+
+    private Long lastId(ExecutionContext executionContext) {
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            if (entry.getKey().endsWith(LAST_ID_SUFFIX) && entry.getValue() instanceof Number) {
+                return ((Number) entry.getValue()).longValue();
+            }
+        }
+
+        return null;
+    }
+
+    private Long getLong(ExecutionContext executionContext, String key) {
+        Object value = executionContext.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+}
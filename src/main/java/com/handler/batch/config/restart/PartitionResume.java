@@ -0,0 +1,40 @@
+package com.handler.batch.config.restart;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * 재시작 시 step / partition 1개의 처리 여부와 이어서 읽을 위치.
+ */
+@Getter
+public class PartitionResume {
+
+    private String stepName;
+    private BatchStatus status;
+    private boolean resume;
+    private Long minId;
+    private Long maxId;
+    private Long lastId;
+    private int writeCount;
+    private int commitCount;
+
+    @Builder
+    private PartitionResume(String stepName, BatchStatus status, boolean resume, Long minId, Long maxId, Long lastId,
+                            int writeCount, int commitCount) {
+        this.stepName = stepName;
+        this.status = status;
+        this.resume = resume;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.lastId = lastId;
+        this.writeCount = writeCount;
+        this.commitCount = commitCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-60s %-10s %-7s id [%s, %s] lastId %s write %d commit %d",
+                stepName, status, resume ? "RESUME" : "SKIP", minId, maxId, lastId, writeCount, commitCount);
+    }
+}
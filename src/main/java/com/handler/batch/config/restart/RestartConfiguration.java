@@ -0,0 +1,37 @@
+package com.handler.batch.config.restart;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 재시작 대상 partition 확인.
+ *
+ * CLI : --batch.restart.inspect=partitionUserJob (job.name 미지정) 로 실행하면 목록을 출력하고 종료한다.
+ * 재시작 : 같은 job을 다시 실행하면 된다. (RestartableRunIdIncrementer가 실패한 instance를 다시 사용)
+ */
+@Slf4j
+@Configuration
+public class RestartConfiguration {
+
+    @Bean
+    PartitionRestartInspector partitionRestartInspector(JobExplorer jobExplorer) {
+        return new PartitionRestartInspector(jobExplorer);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.restart.inspect")
+    ApplicationRunner restartInspectRunner(PartitionRestartInspector partitionRestartInspector, Environment environment) {
+        return args -> {
+            RestartPlan plan = partitionRestartInspector.inspect(environment.getProperty("batch.restart.inspect"));
+
+            log.info("{} : instance {} execution {} {} (restartable {})", plan.getJobName(), plan.getJobInstanceId(),
+                    plan.getJobExecutionId(), plan.getStatus(), plan.isRestartable());
+            plan.getSteps().forEach(step -> log.info("{}", step));
+        };
+    }
+}
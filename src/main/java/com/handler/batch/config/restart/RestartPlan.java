@@ -0,0 +1,32 @@
+package com.handler.batch.config.restart;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.batch.core.BatchStatus;
+
+import java.util.List;
+
+/**
+ * job을 지금 다시 실행했을 때 이어서 처리할 step / partition 목록.
+ */
+@Getter
+public class RestartPlan {
+
+    private String jobName;
+    private Long jobInstanceId;
+    private Long jobExecutionId;
+    private BatchStatus status;
+    private boolean restartable;
+    private List<PartitionResume> steps;
+
+    @Builder
+    private RestartPlan(String jobName, Long jobInstanceId, Long jobExecutionId, BatchStatus status, boolean restartable,
+                        List<PartitionResume> steps) {
+        this.jobName = jobName;
+        this.jobInstanceId = jobInstanceId;
+        this.jobExecutionId = jobExecutionId;
+        this.status = status;
+        this.restartable = restartable;
+        this.steps = steps;
+    }
+}
@@ -0,0 +1,61 @@
+package com.handler.batch.config.restart;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersIncrementer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 마지막 실행이 FAILED / STOPPED 이면 run.id를 올리지 않고 그 job instance의 파라미터를 그대로 돌려준다.
+ * 같은 instance로 다시 실행되므로 COMPLETED step(saveUserStep 등)과 COMPLETED partition은 건너뛰고
+ * 나머지 partition만 저장된 위치(JdbcUserItemReader.lastId)부터 이어서 처리한다.
+ * 그 외에는 RunIdIncrementer와 같다.
+ */
+@Slf4j
+public class RestartableRunIdIncrementer implements JobParametersIncrementer {
+
+    private final JobExplorer jobExplorer;
+    private final String jobName;
+    private final RunIdIncrementer runIdIncrementer = new RunIdIncrementer();
+
+    public RestartableRunIdIncrementer(JobExplorer jobExplorer, String jobName) {
+        this.jobExplorer = jobExplorer;
+        this.jobName = jobName;
+    }
+
+    @Override
+    public JobParameters getNext(JobParameters parameters) {
+        JobExecution lastExecution = lastExecution(jobExplorer, jobName);
+
+        if (lastExecution != null && isRestartable(lastExecution.getStatus())) {
+            log.info("{} : restart job instance {} (last execution {} {})", jobName,
+                    lastExecution.getJobInstance().getInstanceId(), lastExecution.getId(), lastExecution.getStatus());
+            return lastExecution.getJobParameters();
+        }
+
+        return runIdIncrementer.getNext(parameters);
+    }
+
+    static JobExecution lastExecution(JobExplorer jobExplorer, String jobName) {
+        List<JobInstance> instances = jobExplorer.getJobInstances(jobName, 0, 1);
+
+        if (instances.isEmpty()) {
+            return null;
+        }
+
+        return jobExplorer.getJobExecutions(instances.get(0)).stream()
+                .max(Comparator.comparing(JobExecution::getId))
+                .orElse(null);
+    }
+
+    static boolean isRestartable(BatchStatus status) {
+        return status == BatchStatus.FAILED || status == BatchStatus.STOPPED;
+    }
+}
@@ -0,0 +1,30 @@
+package com.handler.batch.config.sample;
+
+import org.springframework.batch.item.ItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * multi-thread step 용 lock-free in-memory reader.
+ * 여러 thread가 AtomicInteger index로 item을 나눠 가져간다.
+ * thread 별 commit 순서가 보장되지 않으므로 재시작 상태는 저장하지 않는다. (재시작이 필요하면 ListRangePartitioner + CustomItemReader)
+ */
+public class ConcurrentListItemReader<T> implements ItemReader<T> {
+
+    private final List<T> items;
+    private final AtomicInteger index = new AtomicInteger();
+
+    public ConcurrentListItemReader(List<T> items) {
+        this.items = new ArrayList<>(items);
+    }
+
+    @Override
+    public T read() {
+        // 끝까지 읽은 뒤에도 계속 호출되면 overflow 되지 않도록 size를 넘으면 증가시키지 않는다.
+        int current = index.getAndUpdate(i -> i < items.size() ? i + 1 : i);
+
+        return current < items.size() ? items.get(current) : null;
+    }
+}
@@ -1,26 +1,53 @@
 package com.handler.batch.config.sample;
 
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.NonTransientResourceException;
-import org.springframework.batch.item.ParseException;
-import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * index 기반 in-memory reader. (read 1건 O(1))
+ * 읽은 위치(index)를 ExecutionContext에 저장하기 때문에 재시작 시 이어서 읽는다.
+ * thread-safe 하지 않으므로 multi-thread step 에서는 ConcurrentListItemReader를 사용.
+ */
+public class CustomItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
 
-public class CustomItemReader<T> implements ItemReader {
+    private static final String INDEX = "index";
 
     private final List<T> items;
+    private int index = 0;
 
     public CustomItemReader(List<T> items) {
-        this.items = new ArrayList<>(items);
+        this(items, 0, items.size());
+    }
+
+    /**
+     * items의 [startIndex, endIndex) 범위만 읽는다. (ListRangePartitioner 참고)
+     */
+    public CustomItemReader(List<T> items, int startIndex, int endIndex) {
+        this.items = new ArrayList<>(items.subList(startIndex, endIndex));
+        setName(CustomItemReader.class.getSimpleName());
     }
 
     @Override
-    public Object read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-        if(!items.isEmpty()) return items.remove(0);
+    public T read() {
+        if (index < items.size()) return items.get(index++);
 
         return null; // null return 하면 끝.
     }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (executionContext.containsKey(getExecutionContextKey(INDEX))) {
+            index = executionContext.getInt(getExecutionContextKey(INDEX));
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putInt(getExecutionContextKey(INDEX), index);
+    }
 }
@@ -1,5 +1,6 @@
 package com.handler.batch.config.sample;
 
+import com.handler.batch.config.reader.OffsetFlatFileItemReader;
 import com.handler.batch.dao.Person;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,8 +15,6 @@ import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuild
 import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.item.database.builder.JpaCursorItemReaderBuilder;
 import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
 import org.springframework.context.annotation.Bean;
@@ -24,6 +23,7 @@ import org.springframework.core.io.ClassPathResource;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -164,7 +164,7 @@ public class ItemReaderConfiguration {
         return queryProviderFactoryBean.getObject();
     }
     
-    private FlatFileItemReader<Person> csvFileItemReader() throws Exception {
+    private OffsetFlatFileItemReader<Person> csvFileItemReader() throws Exception {
         DefaultLineMapper<Person> lineMapper = new DefaultLineMapper<>();
         DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
         tokenizer.setNames("id", "name", "age", "address");
@@ -178,13 +178,13 @@ public class ItemReaderConfiguration {
             return new Person(id, name, age, address);
         });
 
-        FlatFileItemReader<Person> csvFileItemReader = new FlatFileItemReaderBuilder<Person>()
-                .name("csvFileItemReader")
-                .encoding("UTF-8")
-                .resource(new ClassPathResource("test.csv"))
-                .linesToSkip(1) // csv 1 index field name is skip
-                .lineMapper(lineMapper)
-                .build();
+        // 재시작 시 byte offset으로 바로 이동하는 reader
+        OffsetFlatFileItemReader<Person> csvFileItemReader = new OffsetFlatFileItemReader<>(
+                "csvFileItemReader",
+                new ClassPathResource("test.csv"),
+                lineMapper,
+                StandardCharsets.UTF_8,
+                1); // csv 1 index field name is skip
 
         csvFileItemReader.afterPropertiesSet(); // item reader 필수 설정 값 검증 메소드
         return csvFileItemReader;
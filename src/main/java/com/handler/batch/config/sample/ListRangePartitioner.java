@@ -0,0 +1,46 @@
+package com.handler.batch.config.sample;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * in-memory list를 index 범위로 나눈다.
+ * partition 마다 CustomItemReader(items, startIndex, endIndex)로 읽고, 각자 index를 저장하므로 partition 단위로 재시작된다.
+ *
+ * size 100, gridSize 4
+ * partition0 : 0 ~ 24
+ * partition3 : 75 ~ 99
+ */
+public class ListRangePartitioner implements Partitioner {
+
+    public static final String START_INDEX = "startIndex";
+    public static final String END_INDEX = "endIndex";
+
+    private final int size;
+
+    public ListRangePartitioner(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> result = new HashMap<>();
+
+        int targetSize = size / gridSize + (size % gridSize == 0 ? 0 : 1);
+        int number = 0;
+
+        for (int start = 0; start < size; start += targetSize) {
+            ExecutionContext value = new ExecutionContext();
+
+            value.putInt(START_INDEX, start);
+            value.putInt(END_INDEX, Math.min(start + targetSize, size));
+
+            result.put("partition" + number++, value);
+        }
+
+        return result;
+    }
+}
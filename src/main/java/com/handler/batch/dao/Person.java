@@ -7,6 +7,9 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.TableGenerator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
 import java.util.Objects;
 
 @Getter
@@ -15,12 +18,26 @@ import java.util.Objects;
 public class Person {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "person_id")
+    @TableGenerator(name = "person_id", table = "id_generator", pkColumnValue = "person", allocationSize = 1000)
     private int id;
+
+    @NotBlank(groups = Import.class)
     private String name;
+
+    @NotBlank(groups = Import.class)
+    @Pattern(regexp = "\\d{1,3}", groups = Import.class)
     private String age;
+
+    @NotBlank(groups = Import.class)
     private String address;
 
+    /**
+     * 파일 적재 시에만 검사하는 validation group. (JPA persist 시점 검증에는 영향 없음)
+     */
+    public interface Import {
+    }
+
     public Person(String name, String age, String address) {
         this(0, name, age, address);
     }
@@ -11,3 +11,19 @@ insert into person(name, age, address)
 values ('홍길동','30','서울');
 insert into person(name, age, address)
 values ('아무개','24','강원');
+
+-- Person / User / Orders id 할당 테이블 (@TableGenerator, allocationSize 1000, pooled)
+-- pooled optimizer는 next_val 을 block의 마지막 id로 보고 next_val - 999 부터 할당한다.
+-- 기존 데이터가 있으면 max(id) + allocationSize 로 넣어야 첫 id가 max(id) + 1 이 되어 겹치지 않는다.
+-- user / orders 는 IDENTITY 로 쌓인 기존 테이블 기준. (새 DB는 hibernate가 테이블과 id_generator row를 만든다)
+create table if not exists id_generator (
+    sequence_name varchar(255) primary key,
+    next_val bigint
+);
+
+insert into id_generator(sequence_name, next_val)
+select 'person', coalesce(max(id), 0) + 1000 from person;
+insert into id_generator(sequence_name, next_val)
+select 'user', coalesce(max(id), 0) + 1000 from user;
+insert into id_generator(sequence_name, next_val)
+select 'orders', coalesce(max(id), 0) + 1000 from orders;
@@ -0,0 +1,57 @@
+package com.handler.batch.config.chunk;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class AdaptiveChunkSizePolicyTest {
+
+    @Test
+    void growWhenFasterThanTarget() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(60_000, 100, 10, 1000, null);
+        policy.setHeapThreshold(1.1);
+
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        policy.beforeStep(stepExecution);
+
+        for (int i = 0; i < 5; i++) {
+            policy.beforeChunk(null);
+            policy.afterChunk(null);
+        }
+
+        // 한 번에 최대 2배, maxSize 까지
+        Assertions.assertThat(policy.getChunkSize()).isEqualTo(1000);
+        Assertions.assertThat(stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.CHUNK_SIZE)).isEqualTo(1000);
+        Assertions.assertThat(stepExecution.getExecutionContext().getString(AdaptiveChunkSizePolicy.CHUNK_HISTORY))
+                .isEqualTo("[100, 200, 400, 800, 1000]");
+    }
+
+    @Test
+    void shrinkOnLockWaitAndError() {
+        long[] lockWait = {0};
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(60_000, 800, 10, 1000, null);
+        policy.setHeapThreshold(1.1);
+        policy.setLockWaitMillis(() -> lockWait[0] += 1000);
+
+        policy.beforeStep(MetaDataInstanceFactory.createStepExecution());
+
+        policy.beforeChunk(null);
+        policy.afterChunk(null);
+        Assertions.assertThat(policy.getChunkSize()).isEqualTo(400);
+
+        policy.afterChunkError(null);
+        Assertions.assertThat(policy.getChunkSize()).isEqualTo(200);
+    }
+
+    @Test
+    void restartFromSavedSize() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.getExecutionContext().putInt(AdaptiveChunkSizePolicy.CHUNK_SIZE, 350);
+
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(1000, 100, 10, 1000, null);
+        policy.beforeStep(stepExecution);
+
+        Assertions.assertThat(policy.getChunkSize()).isEqualTo(350);
+    }
+}
@@ -0,0 +1,45 @@
+package com.handler.batch.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+class DataSourceConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+            .withUserConfiguration(DataSourceConfiguration.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.hikari.maximum-pool-size=10");
+
+    @Test
+    void usePrimaryWhenReadDataSourceNotConfigured() {
+        contextRunner.run(context -> {
+            Assertions.assertThat(context.getBean(DataSourceConfiguration.READ))
+                    .isSameAs(context.getBean(DataSource.class));
+        });
+    }
+
+    @Test
+    void separatePoolForReadDataSource() {
+        contextRunner
+                .withPropertyValues(
+                        "batch.datasource.read.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+                        "batch.datasource.read.hikari.maximum-pool-size=4")
+                .run(context -> {
+                    HikariDataSource primary = (HikariDataSource) context.getBean(DataSource.class);
+                    HikariDataSource read = (HikariDataSource) context.getBean(DataSourceConfiguration.READ);
+
+                    Assertions.assertThat(read).isNotSameAs(primary);
+                    Assertions.assertThat(primary.getMaximumPoolSize()).isEqualTo(10);
+                    Assertions.assertThat(read.getMaximumPoolSize()).isEqualTo(4);
+                    Assertions.assertThat(read.isReadOnly()).isTrue();
+                });
+    }
+}
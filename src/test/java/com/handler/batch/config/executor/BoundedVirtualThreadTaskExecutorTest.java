@@ -0,0 +1,140 @@
+package com.handler.batch.config.executor;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BoundedVirtualThreadTaskExecutorTest {
+
+    // virtual thread 대신 thread 제한이 없는 pool로 semaphore 동작만 검증
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void limitConcurrencyToPermits() throws Exception {
+        BoundedVirtualThreadTaskExecutor taskExecutor = new BoundedVirtualThreadTaskExecutor(executorService, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            taskExecutor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                // 처음 2개는 서로 기다려서 permit 2개가 동시에 쓰이게 한다.
+                started.countDown();
+                await(started);
+                sleep(5);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        Assertions.assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(maxRunning.get()).isEqualTo(2);
+        Assertions.assertThat(permitsAfterTermination(taskExecutor)).isEqualTo(2);
+    }
+
+    @Test
+    void runNestedSubmissionWithinOuterPermit() throws Exception {
+        BoundedVirtualThreadTaskExecutor taskExecutor = new BoundedVirtualThreadTaskExecutor(executorService, 2);
+        Map<Thread, AtomicInteger> runningThreads = new ConcurrentHashMap<>();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Thread> innerThreads = ConcurrentHashMap.newKeySet();
+        Set<Thread> outerThreads = ConcurrentHashMap.newKeySet();
+        CountDownLatch outerStarted = new CountDownLatch(2);
+        CountDownLatch outerDone = new CountDownLatch(4);
+
+        // 바깥 작업 4개가 각각 안쪽 작업 2개를 제출하고 기다린다. 작업을 실행 중인 thread(= connection) 수를 센다.
+        for (int i = 0; i < 4; i++) {
+            taskExecutor.execute(() -> {
+                enter(runningThreads, maxRunning);
+                outerThreads.add(Thread.currentThread());
+                try {
+                    // permit 2개를 모두 쓰는 상태를 만든 뒤 안쪽 작업을 제출한다.
+                    outerStarted.countDown();
+                    outerStarted.await(5, TimeUnit.SECONDS);
+
+                    CountDownLatch innerDone = new CountDownLatch(2);
+                    for (int j = 0; j < 2; j++) {
+                        taskExecutor.execute(() -> {
+                            enter(runningThreads, maxRunning);
+                            innerThreads.add(Thread.currentThread());
+                            sleep(5);
+                            exit(runningThreads);
+                            innerDone.countDown();
+                        });
+                    }
+
+                    sleep(5);
+                    if (innerDone.await(5, TimeUnit.SECONDS)) {
+                        outerDone.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    exit(runningThreads);
+                }
+            });
+        }
+
+        Assertions.assertThat(outerDone.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(maxRunning.get()).isEqualTo(2);
+        Assertions.assertThat(outerThreads).containsAll(innerThreads);
+        Assertions.assertThat(taskExecutor.getNestedSubmissionCount()).isEqualTo(8);
+        Assertions.assertThat(permitsAfterTermination(taskExecutor)).isEqualTo(2);
+    }
+
+    /**
+     * latch는 작업 안에서 풀리므로 permit 반환(finally)까지 끝나도록 pool 종료를 기다린 뒤 확인한다.
+     */
+    private int permitsAfterTermination(BoundedVirtualThreadTaskExecutor taskExecutor) throws InterruptedException {
+        executorService.shutdown();
+        Assertions.assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        return taskExecutor.getAvailablePermits();
+    }
+
+    private void enter(Map<Thread, AtomicInteger> runningThreads, AtomicInteger maxRunning) {
+        synchronized (runningThreads) {
+            runningThreads.computeIfAbsent(Thread.currentThread(), thread -> new AtomicInteger()).incrementAndGet();
+            maxRunning.accumulateAndGet(runningThreads.size(), Math::max);
+        }
+    }
+
+    private void exit(Map<Thread, AtomicInteger> runningThreads) {
+        synchronized (runningThreads) {
+            if (runningThreads.get(Thread.currentThread()).decrementAndGet() == 0) {
+                runningThreads.remove(Thread.currentThread());
+            }
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.handler.batch.config.executor;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+class ConcurrencyTunerTest {
+
+    private EmbeddedDatabase dataSource;
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+        explorerFactory.setDataSource(dataSource);
+        explorerFactory.afterPropertiesSet();
+        jobExplorer = explorerFactory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void limitThreadsToAvailableConnections() {
+        ConcurrencyTuner concurrencyTuner = new ConcurrencyTuner(16, 10, 4, jobExplorer, 30);
+
+        ConcurrencyPlan plan = concurrencyTuner.plan("testJob");
+
+        // (10 connections - reserved 2) / worker 당 2개 (cursor + chunk 트랜잭션)
+        Assertions.assertThat(plan.getThrottleLimit()).isEqualTo(4);
+        Assertions.assertThat(plan.getGridSize()).isEqualTo(4);
+        Assertions.assertThat(plan.getAsyncConcurrency()).isEqualTo(16);
+    }
+
+    @Test
+    void splitGridByLastPartitionThroughput() throws Exception {
+        // 이전 실행 : partition 4개, 각 10,000건 / 10초 -> 1,000건/초, 총 40,000건
+        JobExecution jobExecution = jobRepository.createJobExecution("testJob", new JobParameters());
+        for (int i = 0; i < 4; i++) {
+            StepExecution partition = jobExecution.createStepExecution("testStep:partition" + i);
+            partition.setStartTime(new Date(0));
+            partition.setEndTime(new Date(10_000));
+            partition.setReadCount(10_000);
+            partition.setStatus(BatchStatus.COMPLETED);
+            jobRepository.add(partition);
+        }
+
+        ConcurrencyTuner concurrencyTuner = new ConcurrencyTuner(16, 10, 4, jobExplorer, 5);
+
+        // partition 1개 5초 = 5,000건 -> 40,000 / 5,000 = 8
+        Assertions.assertThat(concurrencyTuner.plan("testJob").getGridSize()).isEqualTo(8);
+    }
+
+    @Test
+    void partitionWithGridSizePlannedWhenStepStarts() throws Exception {
+        ConcurrencyTuner concurrencyTuner = new ConcurrencyTuner(16, 10, 4, jobExplorer, 5);
+        List<Integer> gridSizes = new ArrayList<>();
+        Partitioner partitioner = concurrencyTuner.partitioner("testJob", gridSize -> {
+            gridSizes.add(gridSize);
+            return Collections.emptyMap();
+        });
+
+        // partitioner를 만든 뒤에 쌓인 이력도 partition 시점에 반영된다. (PartitionHandler의 gridSize는 무시)
+        JobExecution jobExecution = jobRepository.createJobExecution("testJob", new JobParameters());
+        for (int i = 0; i < 4; i++) {
+            StepExecution partition = jobExecution.createStepExecution("testStep:partition" + i);
+            partition.setStartTime(new Date(0));
+            partition.setEndTime(new Date(10_000));
+            partition.setReadCount(10_000);
+            partition.setStatus(BatchStatus.COMPLETED);
+            jobRepository.add(partition);
+        }
+
+        partitioner.partition(1);
+
+        Assertions.assertThat(gridSizes).containsExactly(8);
+    }
+
+    @Test
+    void failFastWhenPartitionPoolOversubscribesConnections() {
+        // worker 5개 = connection 10개 > 사용 가능한 8개
+        Assertions.assertThatThrownBy(() -> new ConcurrencyTuner(16, 10, 5, jobExplorer, 30))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("batch.executor.partition.pool-size=5")
+                .hasMessageContaining("at most 4 workers")
+                .hasMessageContaining("maximum-pool-size");
+    }
+
+    @Test
+    void failFastWhenThrottleLimitOversubscribesConnections() {
+        ConcurrencyTuner concurrencyTuner = new ConcurrencyTuner(16, 10, 4, jobExplorer, 30);
+
+        Assertions.assertThatThrownBy(() -> concurrencyTuner.setThrottleLimit(5))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("batch.concurrency.throttle-limit=5");
+    }
+}
@@ -0,0 +1,50 @@
+package com.handler.batch.config.executor;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class NestedSubmissionDetectorTest {
+
+    @Test
+    void failNestedSubmissionToSamePool() throws Exception {
+        ThreadPoolTaskExecutor outer = pool("outer");
+        ThreadPoolTaskExecutor inner = pool("inner");
+        CompletableFuture<Throwable> nested = new CompletableFuture<>();
+        CompletableFuture<Throwable> other = new CompletableFuture<>();
+
+        outer.execute(() -> {
+            try {
+                outer.execute(() -> { });
+                nested.complete(null);
+            } catch (Throwable e) {
+                nested.complete(e);
+            }
+
+            try {
+                inner.execute(() -> { });
+                other.complete(null);
+            } catch (Throwable e) {
+                other.complete(e);
+            }
+        });
+
+        Assertions.assertThat(nested.get(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(other.get(5, TimeUnit.SECONDS)).isNull();
+
+        outer.shutdown();
+        inner.shutdown();
+    }
+
+    private ThreadPoolTaskExecutor pool(String name) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(1);
+        taskExecutor.setQueueCapacity(1);
+        taskExecutor.setTaskDecorator(new NestedSubmissionDetector(name, true));
+        taskExecutor.initialize();
+        return taskExecutor;
+    }
+}
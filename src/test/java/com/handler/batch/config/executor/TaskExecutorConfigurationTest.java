@@ -0,0 +1,48 @@
+package com.handler.batch.config.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+
+class TaskExecutorConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(TaskExecutorConfiguration.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withBean(DataSource.class, () -> new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build())
+            .withBean(JobExplorer.class, () -> Mockito.mock(JobExplorer.class));
+
+    @Test
+    void bindPoolMetricsToInjectedRegistry() {
+        contextRunner.run(context -> {
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+
+            for (String name : new String[] {"batch.batch", "batch.flow-split", "batch.partition", "batch.async-item"}) {
+                Assertions.assertThat(meterRegistry.find("executor.queued").tag("name", name).gauge()).isNotNull();
+                Assertions.assertThat(meterRegistry.find("executor.active").tag("name", name).gauge()).isNotNull();
+            }
+        });
+    }
+
+    @Test
+    void fallBackToPlatformPoolsWithoutVirtualThreads() {
+        contextRunner
+                .withPropertyValues("batch.executor.mode=virtual")
+                .run(context -> {
+                    boolean virtualThreadSupported = BoundedVirtualThreadTaskExecutor.create(1).isPresent();
+
+                    for (String name : new String[] {TaskExecutorConfiguration.FLOW_SPLIT, TaskExecutorConfiguration.PARTITION, TaskExecutorConfiguration.ASYNC_ITEM}) {
+                        Assertions.assertThat(context.getBean(name) instanceof BoundedVirtualThreadTaskExecutor)
+                                .isEqualTo(virtualThreadSupported);
+                    }
+                });
+    }
+}
@@ -0,0 +1,122 @@
+package com.handler.batch.config.metrics;
+
+import com.handler.batch.config.practice4.SlicedStepBuilder;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class ChunkMetricsListenerTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 25).boxed().collect(Collectors.toList());
+
+    private EmbeddedDatabase dataSource;
+    private JobRepository jobRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private StepBuilderFactory stepBuilderFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        meterRegistry = new SimpleMeterRegistry();
+        stepBuilderFactory = ChunkMetricsConfiguration.metered(
+                new StepBuilderFactory(jobRepository, transactionManager), new ChunkMetricsListener(meterRegistry, 5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void recordHistogramPerChunk() throws Exception {
+        Step step = stepBuilderFactory.get("userLevelUpStep:partition1")
+                .<Integer, Integer>chunk(10)
+                .reader(new ListItemReader<>(ITEMS))
+                .processor((ItemProcessor<Integer, Integer>) item -> item * 2)
+                .writer(items -> { })
+                .build();
+
+        execute(step);
+
+        // 10 + 10 + 5 건, 빈 마지막 chunk는 기록하지 않는다.
+        for (String name : new String[]{"batch.chunk.read", "batch.chunk.process", "batch.chunk.write", "batch.chunk.commit"}) {
+            Assertions.assertThat(timer(name, "userLevelUpStep", "partition1").count()).as(name).isEqualTo(3);
+        }
+
+        Assertions.assertThat(meterRegistry.get("batch.chunk.throughput").summary().count()).isEqualTo(3);
+        // 5건 중 1건만 기록
+        Assertions.assertThat(meterRegistry.get("batch.item.read").timer().count()).isEqualTo(5);
+        Assertions.assertThat(meterRegistry.get("batch.item.process").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    void recordHistogramPerChunkOfSlicedStep() throws Exception {
+        Step step = new SlicedStepBuilder<Integer, Integer>(stepBuilderFactory.get("slicedStep"), new SimpleAsyncTaskExecutor("slice-"), 2)
+                .chunk(10)
+                .reader(new ListItemReader<>(ITEMS))
+                .processor((ItemProcessor<Integer, Integer>) item -> item * 2)
+                .writer(items -> { })
+                .build();
+
+        execute(step);
+
+        for (String name : new String[]{"batch.chunk.read", "batch.chunk.process", "batch.chunk.write", "batch.chunk.commit", "batch.chunk.duration"}) {
+            Assertions.assertThat(timer(name, "slicedStep", "none").count()).as(name).isEqualTo(3);
+        }
+
+        Assertions.assertThat(timer("batch.chunk.write", "slicedStep", "none").totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    private void execute(Step step) throws Exception {
+        JobExecution jobExecution = jobRepository.createJobExecution("partitionUserJob",
+                new JobParametersBuilder().addString("step", step.getName()).toJobParameters());
+        StepExecution stepExecution = jobExecution.createStepExecution(step.getName());
+        jobRepository.add(stepExecution);
+
+        step.execute(stepExecution);
+
+        Assertions.assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Assertions.assertThat(stepExecution.getWriteCount()).isEqualTo(ITEMS.size());
+    }
+
+    private Timer timer(String name, String step, String partition) {
+        return meterRegistry.get(name)
+                .tags("job", "partitionUserJob", "step", step, "partition", partition)
+                .timer();
+    }
+}
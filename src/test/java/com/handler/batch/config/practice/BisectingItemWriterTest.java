@@ -0,0 +1,174 @@
+package com.handler.batch.config.practice;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class BisectingItemWriterTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private int attempts;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // 37은 check 제약 조건 위반
+        jdbcTemplate.execute("create table item (id int primary key, check (id <> 37))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void isolateBadItemWithLogarithmicAttempts() {
+        BisectingItemWriter<Integer> writer = new BisectingItemWriter<>(jdbcWriter(), dataSource);
+
+        List<BisectingItemWriter.WriteFailure<Integer>> failures = transactionTemplate.execute(status -> {
+            write(writer, items(100));
+            return writer.drainFailures();
+        });
+
+        Assertions.assertThat(failures).extracting(BisectingItemWriter.WriteFailure::getItem).containsExactly(37);
+        Assertions.assertThat(failures.get(0).getException()).isInstanceOf(DataIntegrityViolationException.class);
+        Assertions.assertThat(count()).isEqualTo(99);
+        // 최초 1회 + 단계마다 2회 * log2(100)
+        Assertions.assertThat(attempts).isLessThanOrEqualTo(1 + 2 * 7);
+        Assertions.assertThat(writer.drainFailures()).isEmpty();
+    }
+
+    @Test
+    void rollbackWrittenSubChunksWithChunkTransaction() {
+        BisectingItemWriter<Integer> writer = new BisectingItemWriter<>(jdbcWriter(), dataSource);
+
+        // chunk 트랜잭션이 rollback 되면 정상 sub-chunk도 남지 않는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            write(writer, items(100));
+            writer.drainFailures();
+            status.setRollbackOnly();
+        });
+        Assertions.assertThat(count()).isZero();
+
+        // 재실행해도 중복 insert 없음
+        transactionTemplate.executeWithoutResult(status -> write(writer, items(100)));
+        Assertions.assertThat(count()).isEqualTo(99);
+    }
+
+    @Test
+    void countWriteSkipInContributionAndNotifyListener() throws Exception {
+        BisectingItemWriter<Integer> writer = new BisectingItemWriter<>(jdbcWriter(), dataSource);
+        List<Integer> skipped = new ArrayList<>();
+
+        BisectingChunkProcessor<Integer, Integer> processor = new BisectingChunkProcessor<>(null, writer, writer, skipPolicy(2));
+        processor.registerListener(new SkipListener<Integer, Integer>() {
+            @Override
+            public void onSkipInRead(Throwable t) {
+            }
+
+            @Override
+            public void onSkipInWrite(Integer item, Throwable t) {
+                skipped.add(item);
+            }
+
+            @Override
+            public void onSkipInProcess(Integer item, Throwable t) {
+            }
+        });
+
+        StepContribution contribution = MetaDataInstanceFactory.createStepExecution().createStepContribution();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                processor.process(contribution, chunk(100));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Assertions.assertThat(contribution.getWriteSkipCount()).isEqualTo(1);
+        Assertions.assertThat(contribution.getWriteCount()).isEqualTo(99);
+        Assertions.assertThat(skipped).containsExactly(37);
+    }
+
+    @Test
+    void failChunkWhenSkipLimitExceeded() {
+        BisectingItemWriter<Integer> writer = new BisectingItemWriter<>(jdbcWriter(), dataSource);
+        BisectingChunkProcessor<Integer, Integer> processor = new BisectingChunkProcessor<>(null, writer, writer, skipPolicy(0));
+
+        StepContribution contribution = MetaDataInstanceFactory.createStepExecution().createStepContribution();
+
+        Assertions.assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                processor.process(contribution, chunk(100));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        })).hasCauseInstanceOf(SkipLimitExceededException.class);
+
+        Assertions.assertThat(count()).isZero();
+        Assertions.assertThat(writer.drainFailures()).isEmpty();
+    }
+
+    private ItemWriter<Integer> jdbcWriter() {
+        return items -> {
+            attempts++;
+            jdbcTemplate.batchUpdate("insert into item (id) values (?)", items.stream()
+                    .map(item -> new Object[] {item})
+                    .collect(Collectors.toList()));
+        };
+    }
+
+    private LimitCheckingItemSkipPolicy skipPolicy(int skipLimit) {
+        return new LimitCheckingItemSkipPolicy(skipLimit, Collections.singletonMap(DataIntegrityViolationException.class, true));
+    }
+
+    private void write(ItemWriter<Integer> writer, List<Integer> items) {
+        try {
+            writer.write(items);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Integer> items(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    private Chunk<Integer> chunk(int size) {
+        return new Chunk<>(items(size));
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from item", Integer.class);
+    }
+}
@@ -0,0 +1,145 @@
+package com.handler.batch.config.practice;
+
+import com.handler.batch.config.executor.TaskExecutorConfiguration;
+import com.handler.batch.dao.Person;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@SpringBootTest(classes = SavePersonConfigurationTest.SavePersonTestConfiguration.class, properties = "spring.batch.job.enabled=false")
+class SavePersonConfigurationTest {
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("savePersonJob")
+    private Job savePersonJob;
+
+    @Autowired
+    @Qualifier("redrivePersonJob")
+    private Job redrivePersonJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void partitionRejectPath() {
+        Assertions.assertThat(SavePersonConfiguration.partitionRejectPath("output/person_reject.csv", "partition0_0"))
+                .isEqualTo("output/person_reject_partition0_0.csv");
+        Assertions.assertThat(SavePersonConfiguration.partitionRejectPath("output/person_reject", "partition0_0"))
+                .isEqualTo("output/person_reject_partition0_0");
+    }
+
+    @Test
+    void filterDuplicatesAcrossPartitionsAndRedriveEveryRejectFile() throws Exception {
+        Path input = Files.createDirectory(directory.resolve("input"));
+        write(input.resolve("a.csv"), "이름,나이,거주지", "노승철,27,인천", "홍길동,30,서울", "불량,abc,서울");
+        write(input.resolve("b.csv"), "이름,나이,거주지", "노승철,27,인천", "아무개,22,대전", "불량2,xyz,대전");
+
+        // 확장자 없는 reject_path 에도 partition 마다 다른 파일이 생긴다.
+        String rejectPath = directory.resolve("reject").toString();
+        JobExecution saved = jobLauncher.run(savePersonJob, new JobParametersBuilder()
+                .addString("input", input.toString())
+                .addString("reject_path", rejectPath)
+                .addString("allow_duplicate", "false")
+                .addLong("run.id", 1L)
+                .toJobParameters());
+
+        Assertions.assertThat(saved.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        // 노승철은 a.csv, b.csv 두 partition에 있지만 한 번만 저장된다.
+        Assertions.assertThat(jdbcTemplate.queryForList("select name from person order by name", String.class))
+                .containsExactlyInAnyOrder("노승철", "홍길동", "아무개");
+        Assertions.assertThat(filterCount(saved)).isEqualTo(1);
+
+        List<Path> rejectFiles = rejectFiles();
+        Assertions.assertThat(rejectFiles).extracting(path -> path.getFileName().toString())
+                .containsExactlyInAnyOrder("reject_partition0_0", "reject_partition1_0");
+
+        // 한 파일만 고친 뒤 redrive : partition reject 파일 두 개를 모두 읽는다.
+        Path fixed = rejectFiles.stream().filter(path -> read(path).contains("불량,abc,서울")).findFirst().get();
+        write(fixed, "이름,나이,거주지,reason", "불량,31,서울");
+
+        String redriveRejectPath = directory.resolve("redrive_reject.csv").toString();
+        JobExecution redriven = jobLauncher.run(redrivePersonJob, new JobParametersBuilder()
+                .addString("input_path", rejectPath)
+                .addString("reject_path", redriveRejectPath)
+                .addLong("run.id", 2L)
+                .toJobParameters());
+
+        Assertions.assertThat(redriven.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        StepExecution redriveStep = redriven.getStepExecutions().iterator().next();
+        Assertions.assertThat(redriveStep.getReadCount()).isEqualTo(2);
+        Assertions.assertThat(jdbcTemplate.queryForList("select name from person", String.class))
+                .containsExactlyInAnyOrder("노승철", "홍길동", "아무개", "불량");
+        Assertions.assertThat(read(Paths.get(redriveRejectPath))).contains("불량2,xyz,대전");
+    }
+
+    private int filterCount(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().contains(":partition"))
+                .mapToInt(StepExecution::getFilterCount)
+                .sum();
+    }
+
+    private List<Path> rejectFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("reject_")).collect(Collectors.toList());
+        }
+    }
+
+    private void write(Path path, String... lines) throws Exception {
+        Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private String read(Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Configuration
+    @EnableBatchProcessing
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Person.class)
+    @Import(SavePersonConfiguration.class)
+    static class SavePersonTestConfiguration {
+
+        @Bean(TaskExecutorConfiguration.PARTITION)
+        TaskExecutor partitionTaskExecutor() {
+            return new SimpleAsyncTaskExecutor("partition-");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.handler.batch.config.practice2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+class JdbcUserItemReaderTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("create table user (id bigint primary key, username varchar(255), level varchar(255), updated_date date, archived_amount bigint default 0 not null)");
+        jdbcTemplate.execute("create table orders (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint)");
+        jdbcTemplate.execute("create table level_history (id bigint auto_increment primary key, user_id bigint, from_level varchar(255), to_level varchar(255), job_execution_id bigint, at timestamp)");
+
+        jdbcTemplate.batchUpdate("insert into user (id, username, level) values (?, ?, 'NORMAL')", Arrays.asList(
+                new Object[] {1, "a"}, new Object[] {2, "b"}, new Object[] {3, "c"}));
+        jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, ?, ?, '2022-07-01', ?)", Arrays.asList(
+                new Object[] {1, "item1", 100_000, 1}, new Object[] {2, "item2", 150_000, 1},
+                new Object[] {3, "item3", 1_000, 2}));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void groupOrdersByUser() throws Exception {
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, 10);
+        itemReader.open(new ExecutionContext());
+
+        User first = itemReader.read();
+        User second = itemReader.read();
+        User third = itemReader.read();
+
+        Assertions.assertThat(first.getId()).isEqualTo(1L);
+        Assertions.assertThat(first.getOrders()).hasSize(2);
+        Assertions.assertThat(first.availableLevelUp()).isTrue();
+        Assertions.assertThat(second.getOrders()).hasSize(1);
+        Assertions.assertThat(third.getOrders()).isEmpty();
+        Assertions.assertThat(itemReader.read()).isNull();
+
+        itemReader.close();
+    }
+
+    @Test
+    void restartAfterLastReadUser() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, 10);
+        itemReader.open(executionContext);
+        itemReader.read();
+        itemReader.update(executionContext);
+        itemReader.close();
+
+        JdbcUserItemReader restarted = new JdbcUserItemReader(dataSource, 10);
+        restarted.open(executionContext);
+
+        Assertions.assertThat(restarted.read().getId()).isEqualTo(2L);
+        Assertions.assertThat(restarted.read().getId()).isEqualTo(3L);
+        Assertions.assertThat(restarted.read()).isNull();
+
+        restarted.close();
+    }
+
+    @Test
+    void updateOnlyLevelAndUpdatedDate() throws Exception {
+        JdbcUserItemReader itemReader = new JdbcUserItemReader(dataSource, 10);
+        itemReader.open(new ExecutionContext());
+        User user = itemReader.read();
+        itemReader.close();
+
+        new JdbcUserLevelItemWriter(dataSource, 7L).write(Arrays.asList(user));
+
+        Assertions.assertThat(jdbcTemplate.queryForObject("select level from user where id = 1", String.class))
+                .isEqualTo(Level.SILVER.name());
+        Assertions.assertThat(jdbcTemplate.queryForObject("select updated_date from user where id = 1", LocalDate.class))
+                .isEqualTo(LocalDate.now());
+        Assertions.assertThat(jdbcTemplate.queryForObject("select username from user where id = 1", String.class))
+                .isEqualTo("a");
+        Assertions.assertThat(jdbcTemplate.queryForObject("select from_level || '->' || to_level from level_history where user_id = 1", String.class))
+                .isEqualTo("NORMAL->SILVER");
+    }
+}
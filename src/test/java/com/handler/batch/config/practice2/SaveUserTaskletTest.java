@@ -0,0 +1,43 @@
+package com.handler.batch.config.practice2;
+
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.List;
+
+class SaveUserTaskletTest {
+
+    @Test
+    void readUserSizeFromStringParameter() throws Exception {
+        // 커맨드라인 실행 (userSize=3)
+        Assertions.assertThat(savedUsers(new JobParametersBuilder().addString("userSize", "3").toJobParameters())).hasSize(12);
+    }
+
+    @Test
+    void readUserSizeFromLongParameter() throws Exception {
+        Assertions.assertThat(savedUsers(new JobParametersBuilder().addLong("userSize", 3L).toJobParameters())).hasSize(12);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<User> savedUsers(JobParameters jobParameters) throws Exception {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        MonthlyOrdersTables monthlyOrdersTables = Mockito.mock(MonthlyOrdersTables.class);
+        ChunkContext chunkContext = new ChunkContext(new StepContext(MetaDataInstanceFactory.createStepExecution(jobParameters)));
+
+        new SaveUserTasklet(userRepository, monthlyOrdersTables).execute(null, chunkContext);
+
+        ArgumentCaptor<List<User>> users = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(userRepository).saveAll(users.capture());
+        // 저장한 주문을 월 테이블에도 쓴다.
+        Mockito.verify(monthlyOrdersTables).write(users.getValue());
+        return users.getValue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.handler.batch.config.practice2;
+
+import com.handler.batch.TestConfiguration;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * replica(readDataSource)를 primary와 다른 DB로 두고 userJob을 실행한다.
+ * replica에는 user 테이블이 없고 월 테이블 내용도 primary와 다르므로, 어느 step이 어느 DataSource를 읽는지 결과로 구분된다.
+ */
+@SpringBatchTest
+@ContextConfiguration(classes = {UserConfiguration.class, DataSourceConfiguration.class, TestConfiguration.class})
+@TestPropertySource(properties = "batch.datasource.read.url=" + UserConfigurationReadDataSourceTest.REPLICA_URL)
+class UserConfigurationReadDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:user_replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    private LevelHistoryRepository levelHistoryRepository;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void levelUpReadsPrimaryAndOnlyStatisticsReadsReplica() throws Exception {
+        // replica 쪽은 read-only connection 이므로 복제된 데이터는 별도 connection으로 넣는다.
+        // primary와 같은 건수(등급별 100명 x 4 = 400건)지만 금액은 1원씩
+        JdbcTemplate replication = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replication.execute("create table orders_202207 (id bigint primary key, user_id bigint, item_name varchar(255), amount int not null, created_date date not null)");
+        replication.update("insert into orders_202207 select x, x, 'item', 1, date '2022-07-02' from system_range(1, 400)");
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addLong("userSize", 100L)
+                .addString("date", "2022-07")
+                .addString("path", directory.toString() + "/")
+                .toJobParameters());
+
+        Assertions.assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        // 등급 상향 reader는 saveUserStep이 primary에 쓴 user를 읽는다. (replica에는 user 테이블이 없다)
+        Assertions.assertThat(writeCount(jobExecution, "userJob+userLevelUpStep")).isEqualTo(300);
+        Assertions.assertThat(levelHistoryRepository.countByJobExecutionId(jobExecution.getId())).isEqualTo(300);
+
+        // 통계는 replica의 월 테이블만 집계한다. (primary라면 7/2 ~ 7/4 금액이 나온다)
+        Path statistics = directory.resolve("2022년_7월_일별_주문_금액.csv");
+        Assertions.assertThat(Files.readAllLines(statistics, StandardCharsets.UTF_8))
+                .containsExactly("total_amount,date", "400,2022-07-02");
+    }
+
+    private int writeCount(JobExecution jobExecution, String stepName) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().equals(stepName))
+                .mapToInt(StepExecution::getWriteCount)
+                .sum();
+    }
+}
@@ -1,10 +1,12 @@
 package com.handler.batch.config.practice2;
 
 import com.handler.batch.TestConfiguration;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.batch.test.context.SpringBatchTest;
@@ -18,7 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBatchTest
 @RunWith(SpringRunner.class)
-@ContextConfiguration(classes = {UserConfiguration.class, TestConfiguration.class})
+@ContextConfiguration(classes = {UserConfiguration.class, DataSourceConfiguration.class, TestConfiguration.class})
 class UserConfigurationTest {
 
     @Autowired
@@ -27,21 +29,30 @@ class UserConfigurationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LevelHistoryRepository levelHistoryRepository;
+
     @Test
     void test() throws Exception {
-        JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+        // 등급별 100명 (NORMAL 유지 100, 등급 상향 300)
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addLong("userSize", 100L)
+                .toJobParameters());
 
         int size = userRepository.findAllByUpdatedDate(LocalDate.now()).size();
 
         Assertions.assertThat(jobExecution.getStepExecutions()
                 .stream()
-                .filter(x -> x.getStepName().equals("userLevelUpStep"))
+                .filter(x -> x.getStepName().equals("userJob+userLevelUpStep"))
                 .mapToInt(StepExecution::getWriteCount)
                 .sum()
         ).isEqualTo(size).isEqualTo(300);
 
         Assertions.assertThat(userRepository.count())
                 .isEqualTo(400);
+
+        Assertions.assertThat(levelHistoryRepository.countByJobExecutionId(jobExecution.getId()))
+                .isEqualTo(size);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.handler.batch.config.practice2;
+
+import com.handler.batch.config.practice3.Orders;
+import javax.persistence.EntityManager;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // reader가 별도 EntityManager로 읽으므로 commit 필요
+class UserOrdersBatchFetchTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void fetchOrdersOncePerPage() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3 * PAGE_SIZE; i++) {
+            users.add(User.builder()
+                    .username("user" + i)
+                    .orders(Arrays.asList(order(i), order(i)))
+                    .build());
+        }
+        save(users);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<User> read = readAll(userReader("select u from User u order by u.id"));
+
+        Assertions.assertThat(read).hasSize(3 * PAGE_SIZE);
+        Assertions.assertThat(read).allSatisfy(user -> Assertions.assertThat(user.getOrders()).hasSize(2));
+        // page 3개 * (user 1 + orders 1) + 마지막 빈 page 1
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 * 2 + 1);
+
+        // partition reader (id 범위)도 page 당 2번
+        long minId = userRepository.findMinId();
+        statistics.clear();
+        List<User> partition = readAll(userReader("select u from User u where u.id between " + minId + " and " + (minId + PAGE_SIZE - 1) + " order by u.id"));
+
+        Assertions.assertThat(partition).hasSize(PAGE_SIZE);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2 + 1);
+    }
+
+    /**
+     * 애플리케이션의 transactionManager 는 batch 용 DataSourceTransactionManager 라서 repository 저장이 flush 되지 않는다.
+     * EntityManager 트랜잭션으로 직접 저장한다.
+     */
+    private void save(List<User> users) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            users.forEach(entityManager::persist);
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private JpaPagingItemReader<User> userReader(String query) throws Exception {
+        JpaPagingItemReader<User> itemReader = new JpaPagingItemReaderBuilder<User>()
+                .queryString(query)
+                .entityManagerFactory(entityManagerFactory)
+                .pageSize(PAGE_SIZE)
+                .name("userItemReader")
+                .build();
+
+        itemReader.afterPropertiesSet();
+        return itemReader;
+    }
+
+    private List<User> readAll(JpaPagingItemReader<User> itemReader) throws Exception {
+        List<User> result = new ArrayList<>();
+        itemReader.open(new ExecutionContext());
+
+        User user;
+        while ((user = itemReader.read()) != null) {
+            result.add(user);
+        }
+
+        itemReader.close();
+        return result;
+    }
+
+    private Orders order(int i) {
+        return Orders.builder()
+                .itemName("item" + i)
+                .amount(1_000)
+                .createdDate(LocalDate.of(2022, 7, 1))
+                .build();
+    }
+}
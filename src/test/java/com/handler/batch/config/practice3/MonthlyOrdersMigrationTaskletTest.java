@@ -0,0 +1,84 @@
+package com.handler.batch.config.practice3;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+class MonthlyOrdersMigrationTaskletTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table orders (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint)");
+
+        // 7월 25건 (7/1 ~ 7/31) + 8월 5건
+        List<Object[]> orders = new ArrayList<>();
+        for (int id = 1; id <= 30; id++) {
+            String createdDate = id <= 25 ? String.format("2022-07-%02d", id) : "2022-08-01";
+            orders.add(new Object[] {id, "item" + id, id * 1_000, createdDate, id});
+        }
+        jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, ?, ?, ?, ?)", orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void copyEveryMonthInBatches() {
+        StepExecution stepExecution = migrate(new MonthlyOrdersMigrationTasklet(dataSource, 10));
+
+        Assertions.assertThat(stepExecution.getWriteCount()).isEqualTo(30);
+        Assertions.assertThat(stepExecution.getExecutionContext().getLong("monthlyOrders.lastId")).isEqualTo(30L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders_202207", Integer.class)).isEqualTo(25);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders_202208", Integer.class)).isEqualTo(5);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select sum(amount) from orders_202207", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject("select sum(amount) from orders where created_date < '2022-08-01'", Long.class));
+    }
+
+    @Test
+    void skipOrdersAlreadyInMonthTable() {
+        // 저장 시 월 테이블에 기록된 주문
+        new MonthlyOrdersTables(dataSource).ensure(YearMonth.of(2022, 7));
+        jdbcTemplate.update("insert into orders_202207 select id, user_id, item_name, amount, created_date from orders where id <= 5");
+
+        StepExecution stepExecution = migrate(new MonthlyOrdersMigrationTasklet(dataSource, 10));
+
+        Assertions.assertThat(stepExecution.getWriteCount()).isEqualTo(25);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders_202207", Integer.class)).isEqualTo(25);
+    }
+
+    private StepExecution migrate(MonthlyOrdersMigrationTasklet tasklet) {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+        RepeatStatus status;
+        do {
+            StepContribution contribution = stepExecution.createStepContribution();
+            status = tasklet.execute(contribution, null);
+            stepExecution.apply(contribution);
+        } while (status.isContinuable());
+
+        return stepExecution;
+    }
+}
@@ -0,0 +1,73 @@
+package com.handler.batch.config.practice3;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.YearMonth;
+
+class MonthlyOrdersTableTaskletTest {
+
+    private static final YearMonth JULY = YearMonth.of(2022, 7);
+
+    private EmbeddedDatabase dataSource;
+    private EmbeddedDatabase replica;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        replica = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void createMonthTableWithoutReplica() throws Exception {
+        new MonthlyOrdersTableTasklet(dataSource, dataSource, JULY).execute(contribution(), null);
+
+        Assertions.assertThat(new JdbcTemplate(dataSource).queryForObject("select count(*) from orders_202207", Integer.class)).isZero();
+    }
+
+    @Test
+    void waitUntilReplicaHasMonthTable() throws Exception {
+        // 저장 시 월 테이블에 기록된 주문 25건
+        new MonthlyOrdersTables(dataSource).ensure(JULY);
+        new JdbcTemplate(dataSource).update("insert into orders_202207 select x, x, 'item', 1000, date '2022-07-01' from system_range(1, 25)");
+
+        // 복제가 늦게 끝나는 상태를 흉내 : 700ms 뒤 replica에 같은 건수를 넣는다.
+        new JdbcTemplate(replica).execute("create table orders_202207 as select * from (values (1)) t(id) where 1 = 0");
+        new Thread(() -> {
+            try {
+                Thread.sleep(700);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            new JdbcTemplate(replica).update("insert into orders_202207 select x from system_range(1, 25)");
+        }).start();
+
+        new MonthlyOrdersTableTasklet(dataSource, replica, JULY).execute(contribution(), null);
+
+        Assertions.assertThat(new JdbcTemplate(replica).queryForObject("select count(*) from orders_202207", Integer.class)).isEqualTo(25);
+    }
+
+    private StepContribution contribution() {
+        return MetaDataInstanceFactory.createStepExecution().createStepContribution();
+    }
+}
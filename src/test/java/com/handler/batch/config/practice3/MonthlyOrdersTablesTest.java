@@ -0,0 +1,88 @@
+package com.handler.batch.config.practice3;
+
+import com.handler.batch.config.practice2.Level;
+import com.handler.batch.config.practice2.User;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+
+class MonthlyOrdersTablesTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void ensureCreatesEmptyTableOnce() {
+        Assertions.assertThat(new MonthlyOrdersTables(dataSource).ensure(YearMonth.of(2022, 9))).isEqualTo("orders_202209");
+        Assertions.assertThat(new MonthlyOrdersTables(dataSource).ensure(YearMonth.of(2022, 9))).isEqualTo("orders_202209");
+
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders_202209", Integer.class)).isZero();
+    }
+
+    @Test
+    void ensureDoesNotCommitCallerTransaction() {
+        jdbcTemplate.execute("create table orders (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint)");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into orders (id, item_name, amount, created_date, user_id) values (1, 'item', 1000, '2022-09-01', 1)");
+            new MonthlyOrdersTables(dataSource).ensure(YearMonth.of(2022, 9));
+            status.setRollbackOnly();
+        });
+
+        // DDL은 별도 connection에서 실행되어 호출한 트랜잭션의 insert는 rollback 된다.
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders", Integer.class)).isZero();
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders_202209", Integer.class)).isZero();
+    }
+
+    @Test
+    void writeOrdersToTheirMonthTables() {
+        User july = User.of(1L, "a", Level.NORMAL, null, 0, Arrays.asList(
+                orders(10L, 1_000, LocalDate.of(2022, 7, 1)), orders(11L, 2_000, LocalDate.of(2022, 7, 31))));
+        User august = User.of(2L, "b", Level.NORMAL, null, 0, Collections.singletonList(
+                orders(12L, 3_000, LocalDate.of(2022, 8, 1))));
+
+        new MonthlyOrdersTables(dataSource).write(Arrays.asList(july, august));
+
+        Assertions.assertThat(jdbcTemplate.queryForList("select user_id from orders_202207 order by id", Long.class)).containsExactly(1L, 1L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select sum(amount) from orders_202207", Long.class)).isEqualTo(3_000L);
+        Assertions.assertThat(jdbcTemplate.queryForList("select id from orders_202208", Long.class)).containsExactly(12L);
+    }
+
+    private Orders orders(Long id, int amount, LocalDate createdDate) {
+        Orders orders = Orders.builder()
+                .itemName("item")
+                .amount(amount)
+                .createdDate(createdDate)
+                .build();
+        ReflectionTestUtils.setField(orders, "id", id); // JPA가 할당하는 id
+        return orders;
+    }
+}
@@ -0,0 +1,82 @@
+package com.handler.batch.config.practice4;
+
+import com.handler.batch.TestConfiguration;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.practice2.UserConfiguration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * userJob과 fusedUserJob 두 job을 한 context에 올리므로 Job 1개를 주입받는 JobLauncherTestUtils(TestConfiguration) 대신 JobLauncher를 쓴다.
+ */
+@SpringJUnitConfig(classes = {UserConfiguration.class, FusedUserConfiguration.class, DataSourceConfiguration.class,
+        FusedUserConfigurationTest.BatchConfiguration.class})
+class FusedUserConfigurationTest {
+
+    private static final String FILE_NAME = "2022년_7월_일별_주문_금액.csv";
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("userJob")
+    private Job userJob;
+
+    @Autowired
+    @Qualifier("fusedUserJob")
+    private Job fusedUserJob;
+
+    @TempDir
+    Path output;
+
+    @Test
+    void writeSameOrderStatisticsAsOrderStatisticsStep() throws Exception {
+        JobExecution userExecution = jobLauncher.run(userJob, parameters(100L, output.resolve("user")));
+        Assertions.assertThat(userExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        // 같은 주문을 다시 집계하도록 fusedUserJob은 user를 만들지 않는다.
+        JobExecution fusedExecution = jobLauncher.run(fusedUserJob, parameters(0L, output.resolve("fused")));
+        Assertions.assertThat(fusedExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        List<String> expected = Files.readAllLines(output.resolve("user").resolve(FILE_NAME), StandardCharsets.UTF_8);
+        List<String> actual = Files.readAllLines(output.resolve("fused").resolve(FILE_NAME), StandardCharsets.UTF_8);
+
+        // 7/1 은 통계 범위(startDate < created_date) 밖이라 7/2 ~ 7/4 3일
+        Assertions.assertThat(expected).hasSize(4);
+        Assertions.assertThat(actual).isEqualTo(expected);
+    }
+
+    private JobParameters parameters(long userSize, Path path) {
+        return new JobParametersBuilder()
+                .addLong("userSize", userSize)
+                .addString("date", "2022-07")
+                .addString("path", path.toString() + "/")
+                .toJobParameters();
+    }
+
+    @Configuration
+    @EnableBatchProcessing
+    @EnableAutoConfiguration
+    @AutoConfigurationPackage(basePackageClasses = TestConfiguration.class) // entity / repository scan
+    static class BatchConfiguration {
+    }
+}
@@ -0,0 +1,95 @@
+package com.handler.batch.config.practice4;
+
+import com.handler.batch.config.practice2.User;
+import com.handler.batch.config.practice3.DailyOrderAmounts;
+import com.handler.batch.config.practice3.OrderStatistics;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+class OrderScanUserItemReaderTest {
+
+    private EmbeddedDatabase dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("create table user (id bigint primary key, username varchar(255), level varchar(255), updated_date date, archived_amount bigint default 0 not null)");
+        jdbcTemplate.execute("create table orders (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint)");
+
+        jdbcTemplate.batchUpdate("insert into user (id, username, level) values (?, ?, 'NORMAL')", Arrays.asList(
+                new Object[] {1, "a"}, new Object[] {2, "b"}, new Object[] {3, "c"}));
+        jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, 'item', ?, ?, ?)", Arrays.asList(
+                new Object[] {1, 100_000, "2022-07-02", 1}, new Object[] {2, 150_000, "2022-07-03", 1},
+                new Object[] {3, 1_000, "2022-07-02", 2}, new Object[] {4, 5_000, "2022-08-01", 2}));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void userTotalsAndDailyTotalsInOneScan() throws Exception {
+        DailyOrderAmounts dailyOrderAmounts = new DailyOrderAmounts(YearMonth.of(2022, 7));
+        OrderScanUserItemReader itemReader = new OrderScanUserItemReader(dataSource, 10, dailyOrderAmounts);
+        itemReader.open(new ExecutionContext());
+
+        User first = itemReader.read();
+        User second = itemReader.read();
+
+        Assertions.assertThat(first.getId()).isEqualTo(1L);
+        Assertions.assertThat(first.availableLevelUp()).isTrue();
+        Assertions.assertThat(second.getId()).isEqualTo(2L);
+        Assertions.assertThat(second.availableLevelUp()).isFalse();
+        Assertions.assertThat(itemReader.read().availableLevelUp()).isFalse(); // 주문 없는 user 3
+        Assertions.assertThat(itemReader.read()).isNull();
+        itemReader.close();
+
+        List<OrderStatistics> orderStatistics = dailyOrderAmounts.toOrderStatistics();
+        Assertions.assertThat(orderStatistics).extracting(OrderStatistics::getDate)
+                .containsExactly(LocalDate.of(2022, 7, 2), LocalDate.of(2022, 7, 3));
+        Assertions.assertThat(orderStatistics).extracting(OrderStatistics::getAmount)
+                .containsExactly("101000", "150000");
+    }
+
+    @Test
+    void restartWithDailyTotalsOfCommittedUsers() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+
+        OrderScanUserItemReader itemReader = new OrderScanUserItemReader(dataSource, 10, new DailyOrderAmounts(YearMonth.of(2022, 7)));
+        itemReader.open(executionContext);
+        itemReader.read();
+        itemReader.update(executionContext);
+        itemReader.read(); // commit 전에 실패
+        itemReader.close();
+
+        DailyOrderAmounts dailyOrderAmounts = new DailyOrderAmounts(YearMonth.of(2022, 7));
+        OrderScanUserItemReader restarted = new OrderScanUserItemReader(dataSource, 10, dailyOrderAmounts);
+        restarted.open(executionContext);
+
+        Assertions.assertThat(restarted.read().getId()).isEqualTo(2L);
+        Assertions.assertThat(restarted.read().getId()).isEqualTo(3L);
+        Assertions.assertThat(restarted.read()).isNull();
+        restarted.close();
+
+        Assertions.assertThat(dailyOrderAmounts.toOrderStatistics()).extracting(OrderStatistics::getAmount)
+                .containsExactly("101000", "150000");
+    }
+}
@@ -0,0 +1,168 @@
+package com.handler.batch.config.practice4;
+
+import com.handler.batch.config.sample.CustomItemReader;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class ReadAheadItemReaderTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    private EmbeddedDatabase dataSource;
+    private JobRepository jobRepository;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void readAheadOnReaderThreadInOrder() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CustomItemReader<Integer> delegate = new CustomItemReader<Integer>(ITEMS) {
+            @Override
+            public Integer read() {
+                threads.add(Thread.currentThread().getName());
+                return super.read();
+            }
+        };
+
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(delegate, new SimpleAsyncTaskExecutor("read-ahead-"), 7, 2);
+        reader.open(new ExecutionContext());
+
+        List<Integer> items = new ArrayList<>();
+        Integer item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+
+        Assertions.assertThat(items).isEqualTo(ITEMS);
+        Assertions.assertThat(threads).allMatch(name -> name.startsWith("read-ahead-"));
+    }
+
+    @Test
+    void throwReaderFailureOnStepThread() throws Exception {
+        IllegalStateException failure = new IllegalStateException("read failed");
+        CustomItemReader<Integer> delegate = new CustomItemReader<Integer>(ITEMS) {
+            @Override
+            public Integer read() {
+                Integer item = super.read();
+                if (item != null && item == 25) {
+                    throw failure;
+                }
+                return item;
+            }
+        };
+
+        ReadAheadItemReader<Integer> reader = new ReadAheadItemReader<>(delegate, new SimpleAsyncTaskExecutor("read-ahead-"), 10, 2);
+        reader.open(new ExecutionContext());
+
+        // 실패 전에 완성된 block (0 ~ 19)은 그대로 읽힌다.
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertThat(reader.read()).isEqualTo(i);
+        }
+        Assertions.assertThatThrownBy(reader::read).isSameAs(failure);
+        Assertions.assertThatThrownBy(reader::read).isSameAs(failure);
+
+        // 저장 위치는 step thread가 마지막으로 가져간 item 다음
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.update(executionContext);
+        reader.close();
+
+        ReadAheadItemReader<Integer> restarted = new ReadAheadItemReader<>(
+                new CustomItemReader<>(ITEMS), new SimpleAsyncTaskExecutor("read-ahead-"), 10, 2);
+        restarted.open(executionContext);
+        Assertions.assertThat(restarted.read()).isEqualTo(20);
+        restarted.close();
+    }
+
+    @Test
+    void restartFromLastCommittedChunkAfterWriterFailure() throws Exception {
+        List<Integer> written = new ArrayList<>();
+
+        // block(7) 과 chunk(10) 크기가 달라 commit 위치가 block 중간에 걸린다.
+        JobExecution failed = launch(written, 55);
+        Assertions.assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        Assertions.assertThat(written).isEqualTo(ITEMS.subList(0, 50));
+
+        StepExecution failedStep = failed.getStepExecutions().iterator().next();
+        Assertions.assertThat(failedStep.getCommitCount()).isEqualTo(5);
+        Assertions.assertThat(failedStep.getWriteCount()).isEqualTo(50);
+
+        JobExecution restarted = launch(written, -1);
+        Assertions.assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Assertions.assertThat(written).isEqualTo(ITEMS);
+        Assertions.assertThat(restarted.getStepExecutions().iterator().next().getReadCount()).isEqualTo(50);
+    }
+
+    private JobExecution launch(List<Integer> written, int failOn) throws Exception {
+        ItemStreamReader<Integer> reader = new ReadAheadItemReader<>(
+                new CustomItemReader<>(ITEMS), new SimpleAsyncTaskExecutor("read-ahead-"), 7, 2);
+
+        Job job = new JobBuilder("readAheadJob")
+                .repository(jobRepository)
+                .start(new StepBuilder("readAheadStep")
+                        .repository(jobRepository)
+                        .transactionManager(transactionManager)
+                        .<Integer, Integer>chunk(10)
+                        .reader(reader)
+                        .writer(items -> {
+                            if (items.contains(failOn)) {
+                                throw new IllegalStateException("write failed");
+                            }
+                            written.addAll(items);
+                        })
+                        .build())
+                .build();
+
+        SimpleJobLauncher jobLauncher = new SimpleJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+
+        return jobLauncher.run(job, new JobParameters());
+    }
+}
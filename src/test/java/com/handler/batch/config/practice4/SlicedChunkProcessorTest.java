@@ -0,0 +1,108 @@
+package com.handler.batch.config.practice4;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class SlicedChunkProcessorTest {
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @BeforeEach
+    void setUp() {
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(4);
+        taskExecutor.setThreadNamePrefix("slice-");
+        taskExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void processSlicesInParallelAndKeepInputOrder() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> written = new ArrayList<>();
+
+        SlicedChunkProcessor<Integer, Integer> processor = new SlicedChunkProcessor<>(item -> {
+            threads.add(Thread.currentThread().getName());
+            return item % 3 == 0 ? null : item * 2;
+        }, written::addAll, taskExecutor, 10);
+
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepContribution contribution = stepExecution.createStepContribution();
+
+        processor.process(contribution, chunk(100));
+
+        List<Integer> expected = IntStream.range(0, 100)
+                .filter(i -> i % 3 != 0)
+                .map(i -> i * 2)
+                .boxed()
+                .collect(Collectors.toList());
+
+        Assertions.assertThat(written).containsExactlyElementsOf(expected);
+        Assertions.assertThat(contribution.getFilterCount()).isEqualTo(34);
+        Assertions.assertThat(contribution.getWriteCount()).isEqualTo(66);
+        // 첫 slice는 chunk thread, 나머지는 pool thread
+        Assertions.assertThat(threads).contains(Thread.currentThread().getName());
+        Assertions.assertThat(threads).anyMatch(name -> name.startsWith("slice-"));
+    }
+
+    @Test
+    void rethrowProcessorExceptionWithoutWriting() {
+        List<Integer> written = new ArrayList<>();
+
+        SlicedChunkProcessor<Integer, Integer> processor = new SlicedChunkProcessor<>(item -> {
+            if (item == 57) {
+                throw new IllegalArgumentException("bad item");
+            }
+            return item;
+        }, written::addAll, taskExecutor, 10);
+
+        StepContribution contribution = MetaDataInstanceFactory.createStepExecution().createStepContribution();
+
+        Assertions.assertThatThrownBy(() -> processor.process(contribution, chunk(100)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad item");
+        Assertions.assertThat(written).isEmpty();
+    }
+
+    @Test
+    void limitSubmittedSlicesByMaxConcurrency() throws Exception {
+        Set<Integer> sliceStarts = ConcurrentHashMap.newKeySet();
+
+        SlicedChunkProcessor<Integer, Integer> processor = new SlicedChunkProcessor<>(item -> {
+            if (item % 25 == 0) {
+                sliceStarts.add(item);
+            }
+            return item;
+        }, items -> { }, taskExecutor, 10);
+        processor.setMaxConcurrency(4);
+
+        processor.process(MetaDataInstanceFactory.createStepExecution().createStepContribution(), chunk(100));
+
+        // slice 크기 10 -> 25
+        Assertions.assertThat(sliceStarts).containsExactlyInAnyOrder(0, 25, 50, 75);
+    }
+
+    private Chunk<Integer> chunk(int size) {
+        Chunk<Integer> chunk = new Chunk<>();
+        IntStream.range(0, size).forEach(chunk::add);
+        return chunk;
+    }
+}
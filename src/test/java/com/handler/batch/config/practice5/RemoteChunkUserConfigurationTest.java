@@ -0,0 +1,51 @@
+package com.handler.batch.config.practice5;
+
+import com.handler.batch.TestConfiguration;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
+import com.handler.batch.config.practice2.UserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+
+@SpringBatchTest
+@ContextConfiguration(classes = {RemoteChunkUserConfiguration.class, RemoteChannelConfiguration.class, DataSourceConfiguration.class, TestConfiguration.class})
+class RemoteChunkUserConfigurationTest {
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LevelHistoryRepository levelHistoryRepository;
+
+    @Test
+    void levelUpOnLocalWorker() throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addLong("userSize", 100L)
+                .toJobParameters());
+
+        Assertions.assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        // manager는 읽기만 하고 worker가 process + write 한다.
+        StepExecution managerStep = jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().endsWith(".manager"))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+
+        Assertions.assertThat(managerStep.getReadCount()).isEqualTo(400);
+        Assertions.assertThat(userRepository.findAllByUpdatedDate(LocalDate.now())).hasSize(300);
+        Assertions.assertThat(levelHistoryRepository.countByJobExecutionId(jobExecution.getId())).isEqualTo(300);
+    }
+}
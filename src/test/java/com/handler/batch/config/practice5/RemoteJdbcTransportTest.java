@@ -0,0 +1,71 @@
+package com.handler.batch.config.practice5;
+
+import com.handler.batch.TestConfiguration;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.executor.TaskExecutorConfiguration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.integration.endpoint.AbstractEndpoint;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * batch.remote.transport=jdbc : 두 context가 같은 H2의 INT_CHANNEL_MESSAGE를 공유한다.
+ * manager context의 endpoint를 모두 멈추므로 partition / chunk는 worker context에서만 처리된다.
+ */
+class RemoteJdbcTransportTest {
+
+    @Test
+    void partitionsProcessedByWorkerContext() throws Exception {
+        assertLevelUpByWorker(RemotePartitionUserConfiguration.class, "remotePartitionUserJob");
+    }
+
+    @Test
+    void chunksProcessedByWorkerContext() throws Exception {
+        assertLevelUpByWorker(RemoteChunkUserConfiguration.class, "remoteChunkUserJob");
+    }
+
+    private void assertLevelUpByWorker(Class<?> jobConfiguration, String jobName) throws Exception {
+        String url = "jdbc:h2:mem:remote_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+        try (ConfigurableApplicationContext worker = context(jobConfiguration, url);
+             ConfigurableApplicationContext manager = context(jobConfiguration, url)) {
+            manager.getBeansOfType(AbstractEndpoint.class).values().forEach(AbstractEndpoint::stop);
+
+            JobExecution jobExecution = manager.getBean(JobLauncher.class).run(manager.getBean(jobName, Job.class),
+                    new JobParametersBuilder()
+                            .addLong("userSize", 100L)
+                            .toJobParameters());
+
+            Assertions.assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+            JdbcTemplate jdbcTemplate = worker.getBean(JdbcTemplate.class);
+            Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from user where updated_date = ?",
+                    Integer.class, Date.valueOf(LocalDate.now()))).isEqualTo(300);
+            Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from level_history where job_execution_id = ?",
+                    Integer.class, jobExecution.getId())).isEqualTo(300);
+            Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from int_channel_message", Integer.class))
+                    .isZero();
+        }
+    }
+
+    private ConfigurableApplicationContext context(Class<?> jobConfiguration, String url) {
+        return new SpringApplicationBuilder(jobConfiguration, RemoteChannelConfiguration.class, TaskExecutorConfiguration.class,
+                DataSourceConfiguration.class, TestConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--batch.remote.transport=jdbc", // application.yml 의 local 보다 우선하도록 인자로 넘긴다.
+                        "--spring.datasource.url=" + url,
+                        "--spring.batch.job.enabled=false");
+    }
+}
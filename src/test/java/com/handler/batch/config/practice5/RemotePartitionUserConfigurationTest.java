@@ -0,0 +1,65 @@
+package com.handler.batch.config.practice5;
+
+import com.handler.batch.TestConfiguration;
+import com.handler.batch.config.datasource.DataSourceConfiguration;
+import com.handler.batch.config.executor.TaskExecutorConfiguration;
+import com.handler.batch.config.practice2.LevelHistoryRepository;
+import com.handler.batch.config.practice2.UserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBatchTest
+@ContextConfiguration(classes = {RemotePartitionUserConfiguration.class, RemoteChannelConfiguration.class, TaskExecutorConfiguration.class, DataSourceConfiguration.class, TestConfiguration.class})
+class RemotePartitionUserConfigurationTest {
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LevelHistoryRepository levelHistoryRepository;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Test
+    void levelUpPartitionsOnLocalWorker() throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addLong("userSize", 100L)
+                .toJobParameters());
+
+        Assertions.assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        // worker step 결과는 공유 JobRepository에 partition 별로 남는다.
+        List<StepExecution> partitions = jobExplorer.getJobExecution(jobExecution.getId()).getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().contains(":partition"))
+                .collect(Collectors.toList());
+        int readCount = partitions.stream()
+                .mapToInt(StepExecution::getReadCount)
+                .sum();
+        int writeCount = partitions.stream()
+                .mapToInt(StepExecution::getWriteCount)
+                .sum();
+
+        Assertions.assertThat(partitions).isNotEmpty().allMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.COMPLETED);
+        Assertions.assertThat(readCount).isEqualTo(400);
+        Assertions.assertThat(writeCount).isEqualTo(300);
+        Assertions.assertThat(userRepository.findAllByUpdatedDate(LocalDate.now())).hasSize(300);
+        Assertions.assertThat(levelHistoryRepository.countByJobExecutionId(jobExecution.getId())).isEqualTo(300);
+    }
+}
@@ -0,0 +1,76 @@
+package com.handler.batch.config.practice5;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Arrays;
+
+class TransactionalChunkProcessorTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table item (id int primary key)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void rollbackWholeChunkWhenWriteFails() {
+        // item 1건씩 insert 하다가 3에서 실패
+        ItemWriter<Integer> itemWriter = items -> {
+            for (Integer item : items) {
+                if (item == 3) {
+                    throw new IllegalStateException("write failed");
+                }
+                jdbcTemplate.update("insert into item (id) values (?)", item);
+            }
+        };
+
+        TransactionalChunkProcessor<Integer> chunkProcessor = new TransactionalChunkProcessor<>(
+                new SimpleChunkProcessor<>(item -> item, itemWriter), new DataSourceTransactionManager(dataSource));
+        StepContribution contribution = MetaDataInstanceFactory.createStepExecution().createStepContribution();
+
+        Assertions.assertThatThrownBy(() -> chunkProcessor.process(contribution, new Chunk<>(Arrays.asList(1, 2, 3, 4))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("write failed");
+
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from item", Integer.class)).isZero();
+    }
+
+    @Test
+    void commitChunk() throws Exception {
+        ItemWriter<Integer> itemWriter = items -> items.forEach(item -> jdbcTemplate.update("insert into item (id) values (?)", item));
+
+        TransactionalChunkProcessor<Integer> chunkProcessor = new TransactionalChunkProcessor<>(
+                new SimpleChunkProcessor<>(item -> item, itemWriter), new DataSourceTransactionManager(dataSource));
+        StepContribution contribution = MetaDataInstanceFactory.createStepExecution().createStepContribution();
+
+        chunkProcessor.process(contribution, new Chunk<>(Arrays.asList(1, 2, 3, 4)));
+
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from item", Integer.class)).isEqualTo(4);
+        Assertions.assertThat(contribution.getWriteCount()).isEqualTo(4);
+    }
+}
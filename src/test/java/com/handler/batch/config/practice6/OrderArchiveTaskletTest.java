@@ -0,0 +1,75 @@
+package com.handler.batch.config.practice6;
+
+import com.handler.batch.config.practice3.MonthlyOrdersTables;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+class OrderArchiveTaskletTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("create table user (id bigint primary key, username varchar(255), level varchar(255), updated_date date, archived_amount bigint default 0 not null)");
+        jdbcTemplate.execute("create table orders (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint)");
+        jdbcTemplate.execute("create table orders_archive (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint, archived_date date)");
+
+        LocalDate old = LocalDate.now().minusYears(2);
+        LocalDate recent = LocalDate.now();
+
+        jdbcTemplate.batchUpdate("insert into user (id, username, level) values (?, ?, 'NORMAL')", Arrays.asList(
+                new Object[] {1, "a"}, new Object[] {2, "b"}));
+        jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, 'item', ?, ?, ?)", Arrays.asList(
+                new Object[] {1, 100_000, old, 1}, new Object[] {2, 1_000, old, 2}, new Object[] {3, 150_000, old, 1},
+                new Object[] {4, 50_000, recent, 1}, new Object[] {5, 2_000, old, 2}));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void moveOldOrdersInBoundedBatchesAndCarryForwardTotals() {
+        OrderArchiveTasklet tasklet = new OrderArchiveTasklet(dataSource, 12, 2, 0);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepContribution contribution = stepExecution.createStepContribution();
+
+        Assertions.assertThat(tasklet.execute(contribution, null)).isEqualTo(RepeatStatus.CONTINUABLE);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from orders", Integer.class)).isEqualTo(3);
+
+        while (tasklet.execute(contribution, null) == RepeatStatus.CONTINUABLE) {
+        }
+
+        Assertions.assertThat(jdbcTemplate.queryForList("select id from orders", Long.class)).containsExactly(4L);
+        Assertions.assertThat(jdbcTemplate.queryForList("select id from orders_archive order by id", Long.class)).containsExactly(1L, 2L, 3L, 5L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select archived_amount from user where id = 1", Long.class)).isEqualTo(250_000L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select archived_amount from user where id = 2", Long.class)).isEqualTo(3_000L);
+        Assertions.assertThat(contribution.getWriteCount()).isEqualTo(4);
+
+        // 지운 주문도 월 테이블에는 남는다.
+        String oldMonth = MonthlyOrdersTables.tableName(YearMonth.from(LocalDate.now().minusYears(2)));
+        Assertions.assertThat(jdbcTemplate.queryForList("select id from " + oldMonth + " order by id", Long.class)).containsExactly(1L, 2L, 3L, 5L);
+    }
+}
@@ -0,0 +1,125 @@
+package com.handler.batch.config.reader;
+
+import com.handler.batch.config.practice.PersonFilePartitioner;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+class OffsetFlatFileItemReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartFromSavedByteOffset() throws Exception {
+        Path file = dir.resolve("person.csv");
+        Files.write(file, Arrays.asList("이름,나이,거주지", "노승철,27,인천", "홍길동,30,서울", "아무개,22,대전"), StandardCharsets.UTF_8);
+
+        ExecutionContext executionContext = new ExecutionContext();
+
+        OffsetFlatFileItemReader<String> reader = reader(file);
+        reader.open(executionContext);
+        Assertions.assertThat(reader.read()).isEqualTo("2:노승철,27,인천");
+        reader.update(executionContext);
+        reader.close();
+
+        Assertions.assertThat(executionContext.getLong("reader.offset"))
+                .isEqualTo(("이름,나이,거주지\n노승철,27,인천\n").getBytes(StandardCharsets.UTF_8).length);
+
+        OffsetFlatFileItemReader<String> restarted = reader(file);
+        restarted.open(executionContext);
+        Assertions.assertThat(restarted.read()).isEqualTo("3:홍길동,30,서울");
+        Assertions.assertThat(restarted.read()).isEqualTo("4:아무개,22,대전");
+        Assertions.assertThat(restarted.read()).isNull();
+        restarted.close();
+    }
+
+    @Test
+    void readFromStartOffset() throws Exception {
+        Path file = dir.resolve("person.csv");
+        Files.write(file, Arrays.asList("이름,나이,거주지", "노승철,27,인천", "홍길동,30,서울", "아무개,22,대전"), StandardCharsets.UTF_8);
+
+        OffsetFlatFileItemReader<String> reader = reader(file);
+        reader.setStartOffset(("이름,나이,거주지\n노승철,27,인천\n").getBytes(StandardCharsets.UTF_8).length, 2);
+        reader.open(new ExecutionContext());
+
+        Assertions.assertThat(reader.read()).isEqualTo("3:홍길동,30,서울");
+        Assertions.assertThat(reader.read()).isEqualTo("4:아무개,22,대전");
+        Assertions.assertThat(reader.read()).isNull();
+        reader.close();
+    }
+
+    @Test
+    void readLastLineWithoutTrailingNewline() throws Exception {
+        Path file = dir.resolve("person.csv");
+        Files.write(file, "이름,나이,거주지\n노승철,27,인천\r\n홍길동,30,서울".getBytes(StandardCharsets.UTF_8));
+
+        ExecutionContext executionContext = new ExecutionContext();
+
+        OffsetFlatFileItemReader<String> reader = reader(file);
+        reader.open(executionContext);
+        Assertions.assertThat(reader.read()).isEqualTo("2:노승철,27,인천");
+        Assertions.assertThat(reader.read()).isEqualTo("3:홍길동,30,서울");
+        reader.update(executionContext);
+        Assertions.assertThat(reader.read()).isNull();
+        reader.close();
+
+        Assertions.assertThat(executionContext.getLong("reader.offset")).isEqualTo(Files.size(file));
+
+        // 마지막 줄까지 commit 된 뒤 재시작하면 더 읽을 것이 없다.
+        OffsetFlatFileItemReader<String> restarted = reader(file);
+        restarted.open(executionContext);
+        Assertions.assertThat(restarted.read()).isNull();
+        restarted.close();
+    }
+
+    @Test
+    void readEachPartitionSplitAtBoundary() throws Exception {
+        Path file = dir.resolve("person.csv");
+        Files.write(file, Arrays.asList("이름,나이,거주지", "노승철,27,인천", "홍길동,30,서울", "아무개,22,대전", "김철수,41,부산"), StandardCharsets.UTF_8);
+
+        // item 4건을 2건씩 나누면 두 번째 partition은 정확히 line 경계에서 시작한다.
+        Map<String, ExecutionContext> partitions = new PersonFilePartitioner(new Resource[] {new FileSystemResource(file)}, 2).partition(1);
+        Assertions.assertThat(partitions).containsOnlyKeys("partition0_0", "partition0_1");
+
+        Assertions.assertThat(readPartition(file, partitions.get("partition0_0")))
+                .containsExactly("2:노승철,27,인천", "3:홍길동,30,서울");
+        Assertions.assertThat(readPartition(file, partitions.get("partition0_1")))
+                .containsExactly("4:아무개,22,대전", "5:김철수,41,부산");
+    }
+
+    private List<String> readPartition(Path file, ExecutionContext partition) throws Exception {
+        OffsetFlatFileItemReader<String> reader = reader(file);
+        reader.setCurrentItemCount(partition.getInt(PersonFilePartitioner.START_ITEM));
+        reader.setMaxItemCount(partition.getInt(PersonFilePartitioner.END_ITEM));
+        reader.setStartOffset(partition.getLong(PersonFilePartitioner.START_OFFSET), partition.getInt(PersonFilePartitioner.START_LINE));
+        reader.open(new ExecutionContext());
+
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.read()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+
+        return lines;
+    }
+
+    private OffsetFlatFileItemReader<String> reader(Path file) {
+        OffsetFlatFileItemReader<String> reader = new OffsetFlatFileItemReader<>(
+                "reader", new FileSystemResource(file), (line, lineNumber) -> lineNumber + ":" + line, StandardCharsets.UTF_8, 1);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+}
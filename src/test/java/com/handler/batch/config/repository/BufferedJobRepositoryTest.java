@@ -0,0 +1,237 @@
+package com.handler.batch.config.repository;
+
+import com.handler.batch.config.sample.CustomItemReader;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class BufferedJobRepositoryTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    private EmbeddedDatabase dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jdbcJobRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jdbcJobRepository = repositoryFactory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void flushFirstCommitAndStepEndOnly() {
+        JobRepository delegate = Mockito.mock(JobRepository.class);
+        BufferedJobRepository jobRepository = new BufferedJobRepository(delegate, 60_000);
+
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(BatchStatus.STARTED);
+
+        for (int i = 0; i < 100; i++) {
+            stepExecution.getExecutionContext().putInt("read.count", i);
+            jobRepository.updateExecutionContext(stepExecution);
+            jobRepository.update(stepExecution);
+        }
+
+        Mockito.verify(delegate, Mockito.times(1)).updateExecutionContext(stepExecution);
+        Mockito.verify(delegate, Mockito.times(1)).update(stepExecution);
+
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        jobRepository.updateExecutionContext(stepExecution);
+        jobRepository.update(stepExecution);
+
+        Mockito.verify(delegate, Mockito.times(2)).updateExecutionContext(stepExecution);
+        Mockito.verify(delegate, Mockito.times(2)).update(stepExecution);
+    }
+
+    @Test
+    void flushContextAndStepExecutionTogether() {
+        JobRepository delegate = Mockito.mock(JobRepository.class);
+        BufferedJobRepository jobRepository = new BufferedJobRepository(delegate, 0);
+
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(BatchStatus.STARTED);
+
+        // 반대 순서 (update -> updateExecutionContext)
+        jobRepository.update(stepExecution);
+        jobRepository.updateExecutionContext(stepExecution);
+
+        InOrder inOrder = Mockito.inOrder(delegate);
+        inOrder.verify(delegate).update(stepExecution);
+        inOrder.verify(delegate).updateExecutionContext(stepExecution);
+    }
+
+    @Test
+    void flushImmediatelyWhenStopRequested() {
+        JobRepository delegate = Mockito.mock(JobRepository.class);
+        BufferedJobRepository jobRepository = new BufferedJobRepository(delegate, 60_000);
+
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(BatchStatus.STARTED);
+        jobRepository.update(stepExecution);
+        jobRepository.updateExecutionContext(stepExecution);
+
+        stepExecution.setTerminateOnly();
+        jobRepository.updateExecutionContext(stepExecution);
+        jobRepository.update(stepExecution);
+
+        Mockito.verify(delegate, Mockito.times(2)).updateExecutionContext(stepExecution);
+        Mockito.verify(delegate, Mockito.times(2)).update(stepExecution);
+    }
+
+    @Test
+    void restartFromLastCommitAfterStepFailure() throws Exception {
+        BufferedJobRepository jobRepository = new BufferedJobRepository(jdbcJobRepository, 60_000);
+        List<Integer> written = new ArrayList<>();
+
+        // 실패로 끝나면 마지막 commit 위치(50)가 바로 저장된다.
+        JobExecution failed = launch(jobRepository, written, 55, () -> { });
+        Assertions.assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+
+        JobExecution restarted = launch(jobRepository, written, -1, () -> { });
+        Assertions.assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Assertions.assertThat(restarted.getStepExecutions().iterator().next().getReadCount()).isEqualTo(50);
+        Assertions.assertThat(written).isEqualTo(ITEMS);
+    }
+
+    @Test
+    void restartFromLastFlushedCheckpointAfterCrash() throws Exception {
+        AtomicBoolean crashed = new AtomicBoolean();
+        BufferedJobRepository jobRepository = new BufferedJobRepository(crashable(jdbcJobRepository, crashed), 1_000);
+        List<Integer> written = new ArrayList<>();
+
+        // step 시작 때 저장한 뒤 3번째 chunk 에서 flush 간격이 지나서 30 까지 저장된다.
+        // 6번째 chunk 에서 process가 죽으므로 메타 테이블에는 4, 5번째 commit(50) 이 빠져 있다.
+        launch(jobRepository, written, 55, () -> crashed.set(true), 25);
+        Assertions.assertThat(written).isEqualTo(ITEMS.subList(0, 50));
+        markCrashedExecutionsFailed();
+
+        crashed.set(false);
+        JobExecution restarted = launch(jobRepository, written, -1, () -> { });
+
+        // 마지막 저장 위치(30) 부터 다시 처리한다. 30 ~ 49 는 두 번 쓰인다.
+        StepExecution restartedStep = restarted.getStepExecutions().iterator().next();
+        Assertions.assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Assertions.assertThat(restartedStep.getReadCount()).isEqualTo(70);
+        Assertions.assertThat(written.subList(50, written.size())).isEqualTo(ITEMS.subList(30, 100));
+    }
+
+    @Test
+    void restartFromLastCommitAfterCrashWithoutBuffering() throws Exception {
+        AtomicBoolean crashed = new AtomicBoolean();
+        JobRepository jobRepository = crashable(jdbcJobRepository, crashed);
+        List<Integer> written = new ArrayList<>();
+
+        launch(jobRepository, written, 55, () -> crashed.set(true));
+        markCrashedExecutionsFailed();
+
+        crashed.set(false);
+        JobExecution restarted = launch(jobRepository, written, -1, () -> { });
+
+        Assertions.assertThat(restarted.getStepExecutions().iterator().next().getReadCount()).isEqualTo(50);
+        Assertions.assertThat(written).isEqualTo(ITEMS);
+    }
+
+    private JobExecution launch(JobRepository jobRepository, List<Integer> written, int failOn, Runnable onFailure) throws Exception {
+        return launch(jobRepository, written, failOn, onFailure, -1);
+    }
+
+    /**
+     * slowOn 이 든 chunk 는 flush 간격(1초) 보다 오래 걸린다.
+     */
+    private JobExecution launch(JobRepository jobRepository, List<Integer> written, int failOn, Runnable onFailure, int slowOn) throws Exception {
+        Job job = new JobBuilder("bufferedJob")
+                .repository(jobRepository)
+                .start(new StepBuilder("bufferedStep")
+                        .repository(jobRepository)
+                        .transactionManager(transactionManager)
+                        .<Integer, Integer>chunk(10)
+                        .reader(new CustomItemReader<>(ITEMS))
+                        .writer(items -> {
+                            if (items.contains(slowOn)) {
+                                Thread.sleep(1_100);
+                            }
+                            if (items.contains(failOn)) {
+                                onFailure.run();
+                                throw new IllegalStateException("write failed");
+                            }
+                            written.addAll(items);
+                        })
+                        .build())
+                .build();
+
+        SimpleJobLauncher jobLauncher = new SimpleJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+
+        return jobLauncher.run(job, new JobParameters());
+    }
+
+    /**
+     * crashed 가 true 가 되면 메타 테이블 저장을 모두 버린다. (process 가 죽은 것과 같은 상태)
+     */
+    private JobRepository crashable(JobRepository delegate, AtomicBoolean crashed) {
+        return (JobRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {JobRepository.class},
+                (proxy, method, args) -> {
+                    if (crashed.get() && (method.getName().startsWith("update") || method.getName().startsWith("add"))) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    /**
+     * 죽은 process 의 실행은 STARTED 로 남으므로 운영자가 하듯 FAILED 로 바꾼다.
+     */
+    private void markCrashedExecutionsFailed() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("update BATCH_STEP_EXECUTION set STATUS = 'FAILED', END_TIME = current_timestamp where STATUS = 'STARTED'");
+        jdbcTemplate.update("update BATCH_JOB_EXECUTION set STATUS = 'FAILED', END_TIME = current_timestamp where STATUS = 'STARTED'");
+    }
+}
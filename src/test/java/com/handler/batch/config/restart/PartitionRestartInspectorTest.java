@@ -0,0 +1,251 @@
+package com.handler.batch.config.restart;
+
+import com.handler.batch.config.practice2.JdbcUserItemReader;
+import com.handler.batch.config.practice2.JdbcUserLevelItemWriter;
+import com.handler.batch.config.practice2.User;
+import com.handler.batch.config.practice2.UserRepository;
+import com.handler.batch.config.practice4.UserLevelUpPartitioner;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class PartitionRestartInspectorTest {
+
+    private static final String JOB_NAME = "partitionUserJob";
+
+    private EmbeddedDatabase dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(dataSource);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+        explorerFactory.setDataSource(dataSource);
+        explorerFactory.afterPropertiesSet();
+        jobExplorer = explorerFactory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void resumeOnlyIncompletePartitionsOfFailedInstance() throws Exception {
+        JobParameters parameters = new JobParametersBuilder().addLong("run.id", 3L).toJobParameters();
+        JobExecution jobExecution = jobRepository.createJobExecution(JOB_NAME, parameters);
+
+        step(jobExecution, JOB_NAME + "_saveUserStep", BatchStatus.COMPLETED, null, null, null);
+        step(jobExecution, JOB_NAME + "_userLevelUpStep:partition0", BatchStatus.COMPLETED, 1L, 5000L, 5000L);
+        step(jobExecution, JOB_NAME + "_userLevelUpStep:partition1", BatchStatus.FAILED, 5001L, 10000L, 7000L);
+
+        jobExecution.setStatus(BatchStatus.FAILED);
+        jobExecution.setEndTime(new Date());
+        jobRepository.update(jobExecution);
+
+        RestartPlan plan = new PartitionRestartInspector(jobExplorer).inspect(JOB_NAME);
+
+        Assertions.assertThat(plan.isRestartable()).isTrue();
+        Assertions.assertThat(plan.getSteps()).extracting(PartitionResume::getStepName, PartitionResume::isResume, PartitionResume::getLastId)
+                .containsExactly(
+                        Assertions.tuple(JOB_NAME + "_saveUserStep", false, null),
+                        Assertions.tuple(JOB_NAME + "_userLevelUpStep:partition0", false, 5000L),
+                        Assertions.tuple(JOB_NAME + "_userLevelUpStep:partition1", true, 7000L));
+
+        // 다시 실행하면 run.id를 올리지 않고 같은 instance를 사용
+        JobParameters next = new RestartableRunIdIncrementer(jobExplorer, JOB_NAME).getNext(parameters);
+        Assertions.assertThat(next.getLong("run.id")).isEqualTo(3L);
+    }
+
+    @Test
+    void newInstanceAfterCompletedExecution() throws Exception {
+        JobParameters parameters = new JobParametersBuilder().addLong("run.id", 3L).toJobParameters();
+        JobExecution jobExecution = jobRepository.createJobExecution(JOB_NAME, parameters);
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        jobExecution.setEndTime(new Date());
+        jobRepository.update(jobExecution);
+
+        Assertions.assertThat(new PartitionRestartInspector(jobExplorer).inspect(JOB_NAME).isRestartable()).isFalse();
+        Assertions.assertThat(new RestartableRunIdIncrementer(jobExplorer, JOB_NAME).getNext(parameters).getLong("run.id")).isEqualTo(4L);
+    }
+
+    @Test
+    void restartFailedPartitionFromLastCommittedId() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table user (id bigint primary key, username varchar(255), level varchar(255), updated_date date, archived_amount bigint default 0 not null)");
+        jdbcTemplate.execute("create table orders (id bigint primary key, item_name varchar(255), amount int, created_date date, user_id bigint)");
+        jdbcTemplate.execute("create table level_history (id bigint auto_increment primary key, user_id bigint, from_level varchar(255), to_level varchar(255), job_execution_id bigint, at timestamp)");
+
+        // user 40명, 모두 SILVER 대상
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> orders = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            users.add(new Object[] {id, "user" + id});
+            orders.add(new Object[] {id, "item" + id, 200_000, id});
+        }
+        jdbcTemplate.batchUpdate("insert into user (id, username, level) values (?, ?, 'NORMAL')", users);
+        jdbcTemplate.batchUpdate("insert into orders (id, item_name, amount, created_date, user_id) values (?, ?, ?, '2022-07-01', ?)", orders);
+
+        JobParameters parameters = new JobParametersBuilder().addLong("run.id", 1L).toJobParameters();
+
+        // partition0 : 1 ~ 20, partition1 : 21 ~ 40. 27번 user 쓰기에서 실패 -> partition1은 25까지 commit
+        JobExecution failed = launch(parameters, 27L);
+        Assertions.assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+
+        RestartPlan plan = new PartitionRestartInspector(jobExplorer).inspect(JOB_NAME);
+        Assertions.assertThat(plan.isRestartable()).isTrue();
+        Assertions.assertThat(plan.getSteps()).extracting(PartitionResume::getStepName, PartitionResume::isResume, PartitionResume::getLastId)
+                .contains(
+                        Assertions.tuple(JOB_NAME + "_userLevelUpStep:partition0", false, 20L),
+                        Assertions.tuple(JOB_NAME + "_userLevelUpStep:partition1", true, 25L));
+
+        JobExecution restarted = launch(new RestartableRunIdIncrementer(jobExplorer, JOB_NAME).getNext(parameters), -1L);
+        Assertions.assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Assertions.assertThat(restarted.getJobInstance().getInstanceId()).isEqualTo(failed.getJobInstance().getInstanceId());
+
+        // 완료된 partition0은 다시 읽지 않고, partition1은 26번부터 읽는다.
+        Assertions.assertThat(restarted.getStepExecutions())
+                .filteredOn(stepExecution -> stepExecution.getStepName().contains(":partition"))
+                .extracting(StepExecution::getStepName, StepExecution::getReadCount)
+                .containsExactlyInAnyOrder(
+                        Assertions.tuple(JOB_NAME + "_userLevelUpStep:partition0", 0),
+                        Assertions.tuple(JOB_NAME + "_userLevelUpStep:partition1", 15));
+
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from user where level = 'SILVER'", Integer.class)).isEqualTo(40);
+        Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from level_history", Integer.class)).isEqualTo(40);
+        Assertions.assertThat(new PartitionRestartInspector(jobExplorer).inspect(JOB_NAME).isRestartable()).isFalse();
+    }
+
+    private JobExecution launch(JobParameters parameters, long failOn) throws Exception {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findMinId()).thenReturn(1L);
+        Mockito.when(userRepository.findMaxId()).thenReturn(40L);
+
+        JdbcUserLevelItemWriter userLevelItemWriter = new JdbcUserLevelItemWriter(dataSource, null);
+
+        Step workerStep = new StepBuilder(JOB_NAME + "_userLevelUpStep")
+                .repository(jobRepository)
+                .transactionManager(transactionManager)
+                .<User, User>chunk(5)
+                .reader(new PartitionUserItemReader(dataSource))
+                .processor((ItemProcessor<User, User>) user -> user.availableLevelUp() ? user : null)
+                .writer(items -> {
+                    if (items.stream().anyMatch(user -> user.getId() == failOn)) {
+                        throw new IllegalStateException("write failed");
+                    }
+                    userLevelItemWriter.write(items);
+                })
+                .build();
+
+        Job job = new JobBuilder(JOB_NAME)
+                .repository(jobRepository)
+                .start(new StepBuilder(JOB_NAME + "_userLevelUpStep.manager")
+                        .repository(jobRepository)
+                        .transactionManager(transactionManager)
+                        .partitioner(JOB_NAME + "_userLevelUpStep", new UserLevelUpPartitioner(userRepository))
+                        .step(workerStep)
+                        .gridSize(2)
+                        .taskExecutor(new SyncTaskExecutor())
+                        .build())
+                .build();
+
+        SimpleJobLauncher jobLauncher = new SimpleJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+
+        return jobLauncher.run(job, parameters);
+    }
+
+    /**
+     * partition의 minId / maxId로 JdbcUserItemReader를 만든다. (실제 job은 @StepScope reader)
+     */
+    private static class PartitionUserItemReader implements ItemStreamReader<User> {
+
+        private final DataSource dataSource;
+        private JdbcUserItemReader delegate;
+
+        private PartitionUserItemReader(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            delegate = new JdbcUserItemReader(dataSource, 5, executionContext.getLong("minId"), executionContext.getLong("maxId"));
+            delegate.setName(JOB_NAME + "_userItemReader");
+            delegate.open(executionContext);
+        }
+
+        @Override
+        public User read() throws Exception {
+            return delegate.read();
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+            delegate.update(executionContext);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private void step(JobExecution jobExecution, String stepName, BatchStatus status, Long minId, Long maxId, Long lastId) {
+        StepExecution stepExecution = jobExecution.createStepExecution(stepName);
+
+        if (minId != null) {
+            stepExecution.getExecutionContext().putLong("minId", minId);
+            stepExecution.getExecutionContext().putLong("maxId", maxId);
+            stepExecution.getExecutionContext().putLong(JOB_NAME + "_userItemReader.lastId", lastId);
+        }
+
+        jobRepository.add(stepExecution);
+        stepExecution.setStatus(status);
+        jobRepository.update(stepExecution);
+    }
+}
@@ -0,0 +1,76 @@
+package com.handler.batch.config.sample;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class CustomItemReaderTest {
+
+    private final List<Integer> items = IntStream.range(0, 1_000_000).boxed().collect(Collectors.toList());
+
+    @Test
+    void restartFromSavedIndex() {
+        CustomItemReader<Integer> reader = new CustomItemReader<>(items);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+
+        for (int i = 0; i < 1000; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+
+        CustomItemReader<Integer> restarted = new CustomItemReader<>(items);
+        restarted.open(executionContext);
+
+        Assertions.assertThat(restarted.read()).isEqualTo(1000);
+    }
+
+    @Test
+    void drainConcurrentlyWithoutDuplicates() {
+        ConcurrentListItemReader<Integer> reader = new ConcurrentListItemReader<>(items);
+        ConcurrentLinkedQueue<Integer> result = new ConcurrentLinkedQueue<>();
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    Integer item;
+                    while ((item = reader.read()) != null) {
+                        result.add(item);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        Assertions.assertThat(result).hasSize(items.size());
+        Assertions.assertThat(result.stream().distinct().count()).isEqualTo(items.size());
+    }
+
+    @Test
+    void readPartitionedRanges() {
+        Map<String, ExecutionContext> partitions = new ListRangePartitioner(items.size()).partition(3);
+        List<Integer> result = new ArrayList<>();
+
+        partitions.values().forEach(context -> {
+            CustomItemReader<Integer> reader = new CustomItemReader<>(items,
+                    context.getInt(ListRangePartitioner.START_INDEX),
+                    context.getInt(ListRangePartitioner.END_INDEX));
+
+            Integer item;
+            while ((item = reader.read()) != null) {
+                result.add(item);
+            }
+        });
+
+        Collections.sort(result);
+        Assertions.assertThat(partitions).hasSize(3);
+        Assertions.assertThat(result).isEqualTo(items);
+    }
+}